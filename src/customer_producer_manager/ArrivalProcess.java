@@ -0,0 +1,61 @@
+package customer_producer_manager;
+
+import distribution.Distribution;
+import distribution.ExponentialDistribution;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+/**
+ * A stream of customer arrival times. Arrivals come in batches, one customer per batch unless
+ * a process says otherwise. Implementations draw from the caller's random stream and allocate
+ * nothing per arrival.
+ */
+public interface ArrivalProcess {
+
+    /**
+     * Time of the first arrival after {@code time}. Calls are expected with non-decreasing
+     * times, each usually the previous arrival.
+     */
+    double nextArrivalTime(double time, SplittableRandom random);
+
+    /**
+     * Number of customers arriving together at the arrival just drawn.
+     */
+    default int batchSize(SplittableRandom random) {
+        return 1;
+    }
+
+    /**
+     * Builds an arrival process from a spec of the form {@code name:arg...}:
+     * {@code poisson:rate} with the rate in arrivals per time unit,
+     * {@code renewal:distribution} with the time between arrivals drawn from a
+     * {@link Distribution#forSpec(String) distribution spec}, or {@code nhpp:path} with
+     * {@code path} a rate profile read by {@link RateProfile#fromFile(String)}.
+     */
+    static ArrivalProcess forSpec(String spec) {
+        String[] parts = spec.trim().split(":", 2);
+        String name = parts[0].trim().toLowerCase();
+        String arguments = parts.length > 1 ? parts[1].trim() : "";
+        switch (name) {
+            case "poisson":
+                double rate;
+                try {
+                    rate = Double.parseDouble(arguments);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Bad rate in arrival process: " + spec, e);
+                }
+                return new RenewalArrivalProcess(new ExponentialDistribution(1 / rate));
+            case "renewal":
+                return new RenewalArrivalProcess(Distribution.forSpec(arguments));
+            case "nhpp":
+                try {
+                    return new ThinningArrivalProcess(RateProfile.fromFile(arguments));
+                } catch (IOException e) {
+                    throw new IllegalArgumentException("Cannot read rate profile for: " + spec, e);
+                }
+            default:
+                throw new IllegalArgumentException("Unknown arrival process: " + spec);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package customer_producer_manager;
+
+import distribution.IntUniformDistribution;
+
+import java.util.SplittableRandom;
+
+/**
+ * Measures the cost of one arrival for a homogeneous Poisson process, a thinned
+ * non-homogeneous one over a business day with a lunch-hour peak, and batch Poisson arrivals,
+ * and prints how many arrivals each produced next to the number the rate profile expects.
+ *
+ * Usage: {@code ArrivalProcessBenchmark [arrivals]}, default 20000000.
+ */
+public class ArrivalProcessBenchmark {
+
+    public static void main(String[] args) {
+        int arrivals = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+
+        // a 480 minute day: 20 arrivals per minute at opening, 120 over lunch, 40 late afternoon
+        RateProfile day = new RateProfile(
+                new double[]{0, 150, 180, 240, 270, 420, 480},
+                new double[]{20, 30, 120, 120, 40, 40, 20});
+        double dailyArrivals = 0;
+        for (int segment = 0; segment < day.getSegmentCount(); segment++) {
+            double length = day.getSegmentStart(segment + 1) - day.getSegmentStart(segment);
+            dailyArrivals += (day.getRate(segment, 0) + day.getRate(segment, length)) / 2 * length;
+        }
+        double meanRate = dailyArrivals / day.getPeriod();
+
+        System.out.printf("%d arrivals per run%n", arrivals);
+        for (int round = 0; round < 3; round++) {
+            boolean warmup = round < 2;
+            SplittableRandom random = new SplittableRandom(42);
+
+            run("poisson", ArrivalProcess.forSpec("poisson:" + meanRate), random, arrivals, meanRate, warmup);
+            run("nhpp thinning", new ThinningArrivalProcess(day), random, arrivals, meanRate, warmup);
+            run("batch poisson", new BatchArrivalProcess(ArrivalProcess.forSpec("poisson:" + meanRate / 2.5),
+                    new IntUniformDistribution(1, 4)), random, arrivals, meanRate, warmup);
+        }
+    }
+
+    private static void run(String name, ArrivalProcess process, SplittableRandom random, int arrivals,
+                            double expectedRate, boolean warmup) {
+        long start = System.nanoTime();
+        double time = 0;
+        long customers = 0;
+        for (int i = 0; i < arrivals; i++) {
+            time = process.nextArrivalTime(time, random);
+            customers += process.batchSize(random);
+        }
+        long nanos = System.nanoTime() - start;
+        if (!warmup) {
+            System.out.printf("%-16s %6.2f ns/arrival, %.4f customers per time unit (profile mean %.4f)%n",
+                    name, (double) nanos / arrivals, customers / time, expectedRate);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package customer_producer_manager;
+
+/**
+ * Where {@link ProducerFederate} takes its customers from: generated by a {@link Producer}
+ * or replayed from a recorded trace by {@link TraceArrivalSource}.
+ */
+public interface ArrivalSource {
+
+    /**
+     * True if the next customer arrives at or before the given time.
+     */
+    boolean hasArrivalDue(double time);
+
+    /**
+     * Arrival time of the next customer, {@link Double#POSITIVE_INFINITY} once there are none.
+     */
+    double getNextArrivalTime();
+
+    /**
+     * Takes the next customer and returns its id; its attributes are then available through
+     * {@link #getLastCustomerClass()} and {@link #getLastServiceType()}.
+     */
+    int produce();
+
+    int getLastCustomerClass();
+
+    int getLastServiceType();
+
+    /**
+     * Stretches the gaps between arrivals from now on by the factor, 1 for none. Sources
+     * that cannot slow down ignore it.
+     */
+    default void setSlowdown(double slowdown) {
+    }
+}
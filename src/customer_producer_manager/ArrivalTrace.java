@@ -0,0 +1,26 @@
+package customer_producer_manager;
+
+/**
+ * Layout of a binary arrival trace, big-endian throughout. A 16 byte header holds the magic
+ * number, the format version and the number of records; then come the records in arrival
+ * order, 16 bytes each: the arrival time as a double, the customer class and the service
+ * type as ints. Fixed-size records let a reader find record {@code i} at
+ * {@code HEADER_SIZE + i * RECORD_SIZE} without parsing the file.
+ */
+public final class ArrivalTrace {
+    public static final int MAGIC = 0x424B4152; // "BKAR"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 16;
+    public static final int RECORD_SIZE = 16;
+
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int COUNT_OFFSET = 8;
+
+    static final int TIME_OFFSET = 0;
+    static final int CLASS_OFFSET = 8;
+    static final int SERVICE_TYPE_OFFSET = 12;
+
+    private ArrivalTrace() {
+    }
+}
@@ -0,0 +1,30 @@
+package customer_producer_manager;
+
+import distribution.Distribution;
+
+import java.util.SplittableRandom;
+
+/**
+ * Batches arriving at the times of another process, each of a size drawn from a distribution
+ * and rounded to a whole number of at least one customer. Over a Poisson process this is a
+ * batch (compound) Poisson process.
+ */
+public class BatchArrivalProcess implements ArrivalProcess {
+    private final ArrivalProcess batchArrivals;
+    private final Distribution batchSize;
+
+    public BatchArrivalProcess(ArrivalProcess batchArrivals, Distribution batchSize) {
+        this.batchArrivals = batchArrivals;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public double nextArrivalTime(double time, SplittableRandom random) {
+        return batchArrivals.nextArrivalTime(time, random);
+    }
+
+    @Override
+    public int batchSize(SplittableRandom random) {
+        return Math.max(1, (int) Math.round(batchSize.sample(random)));
+    }
+}
@@ -0,0 +1,135 @@
+package customer_producer_manager;
+
+/**
+ * Customer ids leased to one producer federate. Ids come in blocks granted by the queue
+ * federate in answer to requestCustomerIds, so any number of producers can run side by side
+ * without their ids colliding. The next block is asked for once half of the current one is
+ * used and is held until the current one runs out, so the producer rarely has to wait for a
+ * grant. A request is numbered, and repeating it after a lost answer returns the same block.
+ */
+public class CustomerIdLease {
+    public static final int DEFAULT_BLOCK_SIZE = 4096;
+
+    private final int blockSize;
+    // the next id to hand out and the end of its block, exclusive
+    private long nextId;
+    private long blockEnd;
+    // a granted block waiting for the current one to run out, firstId < 0 if none
+    private long queuedFirstId = -1;
+    private int queuedSize;
+    private int requestId;
+    private boolean requestPending;
+    private boolean exhausted;
+    private long issued;
+
+    /**
+     * A lease owning every id from 1, for a producer running on its own.
+     */
+    public static CustomerIdLease unshared() {
+        CustomerIdLease lease = new CustomerIdLease(DEFAULT_BLOCK_SIZE);
+        lease.nextId = 1;
+        lease.blockEnd = (long) Integer.MAX_VALUE + 1;
+        return lease;
+    }
+
+    /**
+     * Reads the block size to ask for from {@code producer.idBlock}, by default
+     * {@link #DEFAULT_BLOCK_SIZE}.
+     */
+    public static CustomerIdLease fromSystemProperties() {
+        return new CustomerIdLease(Integer.getInteger("producer.idBlock", DEFAULT_BLOCK_SIZE));
+    }
+
+    public CustomerIdLease(int blockSize) {
+        if (blockSize < 2) {
+            throw new IllegalArgumentException("Id block size must be at least 2, got " + blockSize);
+        }
+        this.blockSize = blockSize;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Number of ids handed out so far.
+     */
+    public long getIssuedCount() {
+        return issued;
+    }
+
+    /**
+     * True once the queue federate has answered that no ids are left to lease.
+     */
+    public boolean isExhausted() {
+        return exhausted;
+    }
+
+    public boolean hasId() {
+        return nextId < blockEnd || queuedFirstId >= 0;
+    }
+
+    public int nextId() {
+        if (nextId == blockEnd) {
+            if (queuedFirstId < 0) {
+                throw new IllegalStateException("No customer ids left after " + issued + ", wait for a lease first");
+            }
+            nextId = queuedFirstId;
+            blockEnd = queuedFirstId + queuedSize;
+            queuedFirstId = -1;
+        }
+        issued++;
+        return (int) nextId++;
+    }
+
+    /**
+     * True if the next block should be asked for now: none is requested or waiting, and at
+     * most half of the current block is left.
+     */
+    public boolean needsBlock() {
+        return !requestPending && !exhausted && queuedFirstId < 0 && blockEnd - nextId <= blockSize / 2;
+    }
+
+    public boolean isRequestPending() {
+        return requestPending;
+    }
+
+    /**
+     * Starts a new request and returns its number, to be sent with requestCustomerIds.
+     */
+    public int startRequest() {
+        requestPending = true;
+        return ++requestId;
+    }
+
+    /**
+     * Number of the request in flight, to be sent again if its answer is slow to come.
+     */
+    public int getRequestId() {
+        return requestId;
+    }
+
+    /**
+     * Takes the block granted for the pending request. Answers to older requests and
+     * repeated answers are ignored. A refusal, a first id below 1, marks the lease
+     * {@link #isExhausted() exhausted}. Returns false if the answer was ignored.
+     */
+    public boolean grant(int answeredRequestId, int firstId, int size) {
+        if (!requestPending || answeredRequestId != requestId) {
+            return false;
+        }
+        requestPending = false;
+        if (firstId < 1 || size < 1) {
+            exhausted = true;
+            return true;
+        }
+        if (nextId == blockEnd) {
+            nextId = firstId;
+            blockEnd = (long) firstId + size;
+        } else {
+            queuedFirstId = firstId;
+            queuedSize = size;
+        }
+        return true;
+    }
+}
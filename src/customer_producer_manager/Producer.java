@@ -1,30 +1,122 @@
 package customer_producer_manager;
 
 import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * Generates customers at the times of an {@link ArrivalProcess}, with a class and a service
+ * type drawn from the configured mixes. All customers of an arrival batch arrive at the same
+ * time.
+ */
+public class Producer implements ArrivalSource {
+    public static final String DEFAULT_ARRIVALS = "renewal:int-uniform:1:2";
 
-public class Producer {
     int lastCustomerId;
-    int timeToNext;
+    int lastCustomerClass;
+    int lastServiceType;
+    private final CustomerIdLease ids;
     private final Random random;
+    private final double[] cumulativeClassMix;
+    private final double[] cumulativeServiceTypeMix;
+    private final ArrivalProcess arrivals;
+    private final SplittableRandom arrivalRandom;
+    private double nextArrivalTime;
+    private int remainingInBatch;
+    private double slowdown = 1;
 
     public Producer() {
+        this(new double[]{1.0});
+    }
+
+    public Producer(double[] classMix) {
+        this(classMix, new double[]{1.0}, ArrivalProcess.forSpec(DEFAULT_ARRIVALS));
+    }
+
+    /**
+     * @param classMix       share of arrivals in each customer class, indexed by class code
+     * @param serviceTypeMix share of arrivals needing each service type, indexed by type
+     */
+    public Producer(double[] classMix, double[] serviceTypeMix, ArrivalProcess arrivals) {
+        this(classMix, serviceTypeMix, arrivals, CustomerIdLease.unshared(), new SplittableRandom());
+    }
+
+    /**
+     * @param ids    lease the customer ids are taken from
+     * @param random seeds the arrival times and the class and service type draws
+     */
+    public Producer(double[] classMix, double[] serviceTypeMix, ArrivalProcess arrivals, CustomerIdLease ids, SplittableRandom random) {
         this.lastCustomerId = 0;
-        this.random = new Random();
-        this.timeToNext = generateTimeToNext();
+        this.ids = ids;
+        this.random = new Random(random.nextLong());
+        this.cumulativeClassMix = cumulative(classMix);
+        this.cumulativeServiceTypeMix = cumulative(serviceTypeMix);
+        this.arrivals = arrivals;
+        this.arrivalRandom = random.split();
+        nextArrivalTime = arrivals.nextArrivalTime(0, arrivalRandom);
+        remainingInBatch = arrivals.batchSize(arrivalRandom);
+    }
+
+    private static double[] cumulative(double[] mix) {
+        double[] cumulativeMix = new double[mix.length];
+        double total = 0;
+        for (int i = 0; i < mix.length; i++) {
+            total += mix[i];
+            cumulativeMix[i] = total;
+        }
+        for (int i = 0; i < mix.length; i++) {
+            cumulativeMix[i] /= total;
+        }
+        return cumulativeMix;
     }
 
+    @Override
+    public boolean hasArrivalDue(double time) {
+        return nextArrivalTime <= time;
+    }
+
+    @Override
+    public double getNextArrivalTime() {
+        return nextArrivalTime;
+    }
+
+    @Override
+    public void setSlowdown(double slowdown) {
+        this.slowdown = slowdown;
+    }
+
+    /**
+     * Generates the next customer, whose arrival time is {@link #getNextArrivalTime()}.
+     */
+    @Override
     public int produce() {
-        timeToNext = generateTimeToNext();
-        lastCustomerId++;
-        System.out.println("I produced customer of ID:" + lastCustomerId + ". Next I'll produce in " + timeToNext);
+        double arrivalTime = nextArrivalTime;
+        if (--remainingInBatch == 0) {
+            double gap = arrivals.nextArrivalTime(arrivalTime, arrivalRandom) - arrivalTime;
+            nextArrivalTime = arrivalTime + gap * slowdown;
+            remainingInBatch = arrivals.batchSize(arrivalRandom);
+        }
+        lastCustomerId = ids.nextId();
+        lastCustomerClass = pick(cumulativeClassMix);
+        lastServiceType = pick(cumulativeServiceTypeMix);
         return lastCustomerId;
     }
 
-    public int getTimeToNext() {
-        return timeToNext;
+    @Override
+    public int getLastCustomerClass() {
+        return lastCustomerClass;
+    }
+
+    @Override
+    public int getLastServiceType() {
+        return lastServiceType;
     }
 
-    private int generateTimeToNext() {
-        return random.nextInt(2) + 1;
+    private int pick(double[] cumulativeMix) {
+        double u = random.nextDouble();
+        int index = 0;
+        while (index < cumulativeMix.length - 1 && u >= cumulativeMix[index]) {
+            index++;
+        }
+        return index;
     }
 }
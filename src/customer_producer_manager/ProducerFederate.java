@@ -1,8 +1,10 @@
 package customer_producer_manager;
 
+import distribution.Distribution;
 import hla.rti1516e.*;
 import hla.rti1516e.encoding.EncoderFactory;
 import hla.rti1516e.encoding.HLAinteger32BE;
+import hla.rti1516e.exceptions.FederateNameAlreadyInUse;
 import hla.rti1516e.exceptions.FederatesCurrentlyJoined;
 import hla.rti1516e.exceptions.FederationExecutionAlreadyExists;
 import hla.rti1516e.exceptions.FederationExecutionDoesNotExist;
@@ -10,22 +12,68 @@ import hla.rti1516e.exceptions.RTIexception;
 import hla.rti1516e.time.HLAfloat64Interval;
 import hla.rti1516e.time.HLAfloat64Time;
 import hla.rti1516e.time.HLAfloat64TimeFactory;
+import queue_manager.Integer32ArrayCodec;
+import time_management.LookaheadProvider;
+import time_management.TimeAdvanceStatistics;
 
 import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Arrays;
+import java.util.SplittableRandom;
 
 public class ProducerFederate {
     public static final String READY_TO_RUN = "ReadyToRun";
+    // evoke rounds, of at least 0.1 s each, before an unanswered id request is sent again
+    private static final int LEASE_RETRY_ROUNDS = 20;
     
     private RTIambassador rtiamb;
     private ProducerFederateAmbassador fedamb;  // created when we connect
     private HLAfloat64TimeFactory timeFactory; // set when we join
     protected EncoderFactory encoderFactory;     // set when we join
 
-    protected InteractionClassHandle addProductsHandle;
+    protected InteractionClassHandle queueBackpressureHandle;
+    protected ParameterHandle queueBackpressureActiveHandle;
+    protected ParameterHandle queueBackpressureBacklogHandle;
+
+    // set by the ambassador while the queue federate asks producers to slow down
+    protected boolean throttled = false;
+    private final double throttleFactor = Double.parseDouble(System.getProperty("producer.throttleFactor", "4.0"));
+    private double minAdvance;
+    private LookaheadProvider lookaheadProvider;
+    private final TimeAdvanceStatistics advanceStatistics = new TimeAdvanceStatistics();
+    private final double statisticsInterval = Double.parseDouble(System.getProperty("producer.statisticsInterval", "60"));
+    private double nextStatisticsTime = statisticsInterval;
+
+    protected InteractionClassHandle addCustomersHandle;
+    private ParameterHandle addCustomersCustomerIdsHandle;
+    private ParameterHandle addCustomersCustomerClassesHandle;
+    private ParameterHandle addCustomersServiceTypesHandle;
+    // reused for every send, the RTI copies the encoded values out of the map
+    private ParameterHandleValueMap addCustomersParameters;
+    private int[] pendingCustomerIds = new int[64];
+    private int[] pendingCustomerClasses = new int[64];
+    private int[] pendingServiceTypes = new int[64];
+    private int pendingCount;
+
+    protected InteractionClassHandle customerIdsLeasedHandle;
+    protected ParameterHandle customerIdsLeasedProducerHandle;
+    protected ParameterHandle customerIdsLeasedRequestIdHandle;
+    protected ParameterHandle customerIdsLeasedFirstIdHandle;
+    protected ParameterHandle customerIdsLeasedBlockSizeHandle;
+    private InteractionClassHandle requestCustomerIdsHandle;
+    private ParameterHandle requestCustomerIdsProducerHandle;
+    private ParameterHandle requestCustomerIdsRequestIdHandle;
+    private ParameterHandle requestCustomerIdsBlockSizeHandle;
+    private ParameterHandleValueMap requestCustomerIdsParameters;
+    // this federate's handle as encoded in id lease interactions
+    private byte[] encodedFederateHandle;
+    private final CustomerIdLease customerIds = CustomerIdLease.fromSystemProperties();
     
 
     private void log(String message) {
@@ -69,10 +117,19 @@ public class ProducerFederate {
             return;
         }
 
-        rtiamb.joinFederationExecution(federateName,            // name for the federate
-                "producer",   // federate type
-                "BankSimulationFederation"     // name of federation
-        );
+        FederateHandle federateHandle;
+        try {
+            federateHandle = rtiamb.joinFederationExecution(federateName,            // name for the federate
+                    "producer",   // federate type
+                    "BankSimulationFederation"     // name of federation
+            );
+        } catch (FederateNameAlreadyInUse inUse) {
+            // another producer took the name, tell this one apart by its process
+            federateName = federateName + "-" + ManagementFactory.getRuntimeMXBean().getName();
+            federateHandle = rtiamb.joinFederationExecution(federateName, "producer", "BankSimulationFederation");
+        }
+        encodedFederateHandle = new byte[federateHandle.encodedLength()];
+        federateHandle.encode(encodedFederateHandle, 0);
 
         log("Joined Federation as " + federateName);
 
@@ -94,23 +151,47 @@ public class ProducerFederate {
         }
 
         enableTimePolicy();
+        minAdvance = Double.parseDouble(System.getProperty("producer.minAdvance", String.valueOf(fedamb.federateLookahead)));
+        lookaheadProvider = LookaheadProvider.fromSystemProperties("producer", fedamb.federateLookahead);
         log("Time Policy Enabled");
 
         publishAndSubscribe();
         log("Published and Subscribed");
 
-        Producer producer = new Producer();
+        ArrivalSource producer = createArrivalSource(federateName);
+        awaitCustomerIds();
         while (fedamb.isRunning) {
-            int producedCustomerId = producer.produce();
-            ParameterHandleValueMap parameterHandleValueMap = rtiamb.getParameterHandleValueMapFactory().create(1);
-            ParameterHandle addCustomerIdHandle = rtiamb.getParameterHandle(addProductsHandle, "customerId");
-            HLAinteger32BE count = encoderFactory.createHLAinteger32BE(producedCustomerId);
-            parameterHandleValueMap.put(addCustomerIdHandle, count.toByteArray());
-            rtiamb.sendInteraction(addProductsHandle, parameterHandleValueMap, generateTag());
-
-            advanceTime(producer.getTimeToNext());
+            producer.setSlowdown(throttled ? throttleFactor : 1);
+            // every customer arriving by one lookahead from now goes out in one interaction,
+            // timestamped so the queue federate receives it at that time
+            pendingCount = 0;
+            while (producer.hasArrivalDue(fedamb.federateTime + fedamb.federateLookahead)) {
+                if (!customerIds.hasId()) {
+                    awaitCustomerIds();
+                }
+                int customerId = producer.produce();
+                addPending(customerId, producer.getLastCustomerClass(), producer.getLastServiceType());
+            }
+            if (pendingCount > 0) {
+                sendAddCustomers();
+                log("Sent " + pendingCount + " arrivals, customers " + pendingCustomerIds[0] + " to " + pendingCustomerIds[pendingCount - 1]);
+            }
+            if (customerIds.needsBlock()) {
+                sendRequestCustomerIds(customerIds.startRequest());
+            }
+            advanceTime(producer.getNextArrivalTime());
             log("Time Advanced to " + fedamb.federateTime);
+            if (fedamb.federateTime >= nextStatisticsTime) {
+                log("Time advance: " + advanceStatistics);
+                while (nextStatisticsTime <= fedamb.federateTime) {
+                    nextStatisticsTime += statisticsInterval;
+                }
+            }
         }
+        if (producer instanceof Closeable) {
+            ((Closeable) producer).close();
+        }
+        log("Time advance: " + advanceStatistics + ", " + lookaheadProvider.getChanges() + " lookahead changes");
 
         rtiamb.resignFederationExecution(ResignAction.DELETE_OBJECTS);
         log("Resigned from Federation");
@@ -125,6 +206,111 @@ public class ProducerFederate {
         }
     }
 
+    /**
+     * Replays the trace named by producer.trace if set, otherwise generates customers from
+     * producer.arrivals, producer.batchSize and the class and service type mixes. With several
+     * producers each one runs its own arrival stream, so producer.arrivals is its share of the
+     * load, and takes its customer ids from the blocks the queue federate leases to it.
+     */
+    private ArrivalSource createArrivalSource(String federateName) throws IOException {
+        String tracePath = System.getProperty("producer.trace");
+        if (tracePath != null) {
+            TraceArrivalSource trace = new TraceArrivalSource(tracePath, customerIds);
+            log("Replaying " + trace.getRecordCount() + " arrivals from " + tracePath);
+            return trace;
+        }
+        ArrivalProcess arrivals = ArrivalProcess.forSpec(System.getProperty("producer.arrivals", Producer.DEFAULT_ARRIVALS));
+        String batchSize = System.getProperty("producer.batchSize");
+        if (batchSize != null) {
+            arrivals = new BatchArrivalProcess(arrivals, Distribution.forSpec(batchSize));
+        }
+        return new Producer(parseMix(System.getProperty("producer.classMix", "0.1,0.3,0.6")),
+                parseMix(System.getProperty("producer.serviceTypeMix", "1")), arrivals, customerIds, createRandom(federateName));
+    }
+
+    /**
+     * Unseeded unless producer.seed is set, in which case the seed is mixed with the federate
+     * name, so every producer of a seeded run draws its own reproducible arrivals.
+     */
+    private static SplittableRandom createRandom(String federateName) {
+        Long seed = Long.getLong("producer.seed");
+        if (seed == null) {
+            return new SplittableRandom();
+        }
+        return new SplittableRandom(seed * 0x9E3779B97F4A7C15L + federateName.hashCode());
+    }
+
+    /**
+     * Waits, without advancing time, until the queue federate has leased this producer a
+     * block of customer ids, asking for one if no request is in flight and asking again while
+     * the answer does not come.
+     */
+    private void awaitCustomerIds() throws RTIexception {
+        if (!customerIds.isRequestPending()) {
+            sendRequestCustomerIds(customerIds.startRequest());
+        }
+        int rounds = 0;
+        while (!customerIds.hasId()) {
+            if (customerIds.isExhausted()) {
+                throw new IllegalStateException("The queue federate has no customer ids left to lease");
+            }
+            rtiamb.evokeMultipleCallbacks(0.1, 0.2);
+            if (++rounds % LEASE_RETRY_ROUNDS == 0 && customerIds.isRequestPending()) {
+                log("No answer to customer id request " + customerIds.getRequestId() + ", asking again");
+                sendRequestCustomerIds(customerIds.getRequestId());
+            }
+        }
+    }
+
+    private void sendRequestCustomerIds(int requestId) throws RTIexception {
+        HLAinteger32BE value = encoderFactory.createHLAinteger32BE();
+        requestCustomerIdsParameters.put(requestCustomerIdsProducerHandle, encoderFactory.createHLAopaqueData(encodedFederateHandle).toByteArray());
+        value.setValue(requestId);
+        requestCustomerIdsParameters.put(requestCustomerIdsRequestIdHandle, value.toByteArray());
+        value.setValue(customerIds.getBlockSize());
+        requestCustomerIdsParameters.put(requestCustomerIdsBlockSizeHandle, value.toByteArray());
+        rtiamb.sendInteraction(requestCustomerIdsHandle, requestCustomerIdsParameters, generateTag());
+    }
+
+    boolean isThisFederate(byte[] encodedHandle) {
+        return Arrays.equals(encodedHandle, encodedFederateHandle);
+    }
+
+    /**
+     * Called by the ambassador with the answer to one of this producer's id requests.
+     */
+    void customerIdsLeased(int requestId, int firstId, int blockSize) {
+        if (customerIds.grant(requestId, firstId, blockSize)) {
+            log(firstId > 0
+                    ? "Leased customer ids " + firstId + " to " + (firstId + blockSize - 1)
+                    : "Customer id request " + requestId + " refused, no ids left");
+        }
+    }
+
+    /**
+     * Sends the pending customers in one addCustomers interaction, timestamped one lookahead
+     * from now, the earliest time this federate may send at.
+     */
+    private void sendAddCustomers() throws RTIexception {
+        addCustomersParameters.put(addCustomersCustomerIdsHandle, Integer32ArrayCodec.encode(pendingCustomerIds, pendingCount));
+        addCustomersParameters.put(addCustomersCustomerClassesHandle, Integer32ArrayCodec.encode(pendingCustomerClasses, pendingCount));
+        addCustomersParameters.put(addCustomersServiceTypesHandle, Integer32ArrayCodec.encode(pendingServiceTypes, pendingCount));
+        HLAfloat64Time time = timeFactory.makeTime(fedamb.federateTime + fedamb.federateLookahead);
+        rtiamb.sendInteraction(addCustomersHandle, addCustomersParameters, generateTag(), time);
+    }
+
+    private void addPending(int customerId, int customerClass, int serviceType) {
+        if (pendingCount == pendingCustomerIds.length) {
+            pendingCustomerIds = Arrays.copyOf(pendingCustomerIds, pendingCount * 2);
+            pendingCustomerClasses = Arrays.copyOf(pendingCustomerClasses, pendingCount * 2);
+            pendingServiceTypes = Arrays.copyOf(pendingServiceTypes, pendingCount * 2);
+        }
+        pendingCustomerIds[pendingCount] = customerId;
+        pendingCustomerClasses[pendingCount] = customerClass;
+        pendingServiceTypes[pendingCount] = serviceType;
+        pendingCount++;
+    }
+
     private void enableTimePolicy() throws Exception {
         HLAfloat64Interval lookahead = timeFactory.makeInterval(fedamb.federateLookahead);
         this.rtiamb.enableTimeRegulation(lookahead);
@@ -138,18 +324,71 @@ public class ProducerFederate {
     }
 
     private void publishAndSubscribe() throws RTIexception {
-        String iname = "HLAinteractionRoot.addCustomer";
-        addProductsHandle = rtiamb.getInteractionClassHandle(iname);
-        rtiamb.publishInteractionClass(addProductsHandle);
+        String iname = "HLAinteractionRoot.addCustomers";
+        addCustomersHandle = rtiamb.getInteractionClassHandle(iname);
+        rtiamb.publishInteractionClass(addCustomersHandle);
+        addCustomersCustomerIdsHandle = rtiamb.getParameterHandle(addCustomersHandle, "customerIds");
+        addCustomersCustomerClassesHandle = rtiamb.getParameterHandle(addCustomersHandle, "customerClasses");
+        addCustomersServiceTypesHandle = rtiamb.getParameterHandle(addCustomersHandle, "serviceTypes");
+        addCustomersParameters = rtiamb.getParameterHandleValueMapFactory().create(3);
+
+        String iQueueBackpressure = "HLAinteractionRoot.queueBackpressure";
+        queueBackpressureHandle = rtiamb.getInteractionClassHandle(iQueueBackpressure);
+        queueBackpressureActiveHandle = rtiamb.getParameterHandle(queueBackpressureHandle, "active");
+        queueBackpressureBacklogHandle = rtiamb.getParameterHandle(queueBackpressureHandle, "backlog");
+        rtiamb.subscribeInteractionClass(queueBackpressureHandle);
+
+        requestCustomerIdsHandle = rtiamb.getInteractionClassHandle("HLAinteractionRoot.requestCustomerIds");
+        requestCustomerIdsProducerHandle = rtiamb.getParameterHandle(requestCustomerIdsHandle, "producer");
+        requestCustomerIdsRequestIdHandle = rtiamb.getParameterHandle(requestCustomerIdsHandle, "requestId");
+        requestCustomerIdsBlockSizeHandle = rtiamb.getParameterHandle(requestCustomerIdsHandle, "blockSize");
+        rtiamb.publishInteractionClass(requestCustomerIdsHandle);
+        requestCustomerIdsParameters = rtiamb.getParameterHandleValueMapFactory().create(3);
+
+        customerIdsLeasedHandle = rtiamb.getInteractionClassHandle("HLAinteractionRoot.customerIdsLeased");
+        customerIdsLeasedProducerHandle = rtiamb.getParameterHandle(customerIdsLeasedHandle, "producer");
+        customerIdsLeasedRequestIdHandle = rtiamb.getParameterHandle(customerIdsLeasedHandle, "requestId");
+        customerIdsLeasedFirstIdHandle = rtiamb.getParameterHandle(customerIdsLeasedHandle, "firstId");
+        customerIdsLeasedBlockSizeHandle = rtiamb.getParameterHandle(customerIdsLeasedHandle, "blockSize");
+        rtiamb.subscribeInteractionClass(customerIdsLeasedHandle);
     }
 
-    private void advanceTime(double timestep) throws RTIexception {
+    /**
+     * Requests the time one lookahead before the next arrival, but at least minAdvance ahead.
+     * At the grant every arrival due by grant + lookahead goes out in one interaction
+     * timestamped grant + lookahead, not with the arrivals' own times. Only when the
+     * minAdvance clamp is not hit is that the time of the next arrival; otherwise the
+     * arrivals of the batch reach the queue federate late by up to the clamp. The lookahead
+     * grows with the gap to the arrival, so the other federates may advance up to it while
+     * this one waits.
+     */
+    private void advanceTime(double nextArrivalTime) throws RTIexception {
+        if (lookaheadProvider.updateForSendAhead(fedamb.federateTime, nextArrivalTime)) {
+            rtiamb.modifyLookahead(timeFactory.makeInterval(lookaheadProvider.getLookahead()));
+            fedamb.federateLookahead = lookaheadProvider.getLookahead();
+            log("Lookahead set to " + fedamb.federateLookahead);
+        }
+        double requestedTime = nextArrivalTime == Double.POSITIVE_INFINITY
+                ? fedamb.federateTime + minAdvance
+                : Math.max(nextArrivalTime - fedamb.federateLookahead, fedamb.federateTime + minAdvance);
         fedamb.isAdvancing = true;
-        HLAfloat64Time time = timeFactory.makeTime(fedamb.federateTime + timestep);
+        HLAfloat64Time time = timeFactory.makeTime(requestedTime);
+        advanceStatistics.requested();
         rtiamb.timeAdvanceRequest(time);
         while (fedamb.isAdvancing) {
             rtiamb.evokeMultipleCallbacks(0.1, 0.2);
+            advanceStatistics.evoked();
+        }
+        advanceStatistics.granted();
+    }
+
+    private static double[] parseMix(String mix) {
+        String[] parts = mix.split(",");
+        double[] shares = new double[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            shares[i] = Double.parseDouble(parts[i].trim());
         }
+        return shares;
     }
 
     private byte[] generateTag() {
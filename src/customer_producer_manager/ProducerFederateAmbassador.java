@@ -3,6 +3,7 @@ package customer_producer_manager;
 import hla.rti1516e.*;
 import hla.rti1516e.encoding.DecoderException;
 import hla.rti1516e.encoding.HLAinteger32BE;
+import hla.rti1516e.encoding.HLAopaqueData;
 import hla.rti1516e.exceptions.FederateInternalError;
 import hla.rti1516e.time.HLAfloat64Time;
 import org.portico.impl.hla1516e.types.encoding.HLA1516eInteger32BE;
@@ -142,7 +143,37 @@ public class ProducerFederateAmbassador extends NullFederateAmbassador {
                                    OrderType receivedOrdering,
                                    SupplementalReceiveInfo receiveInfo)
             throws FederateInternalError {
-        throw new NotImplementedException();
+        if (interactionClass.equals(federate.queueBackpressureHandle)) {
+            HLAinteger32BE active = new HLA1516eInteger32BE();
+            HLAinteger32BE backlog = new HLA1516eInteger32BE();
+            try {
+                active.decode(theParameters.get(federate.queueBackpressureActiveHandle));
+                backlog.decode(theParameters.get(federate.queueBackpressureBacklogHandle));
+            } catch (DecoderException e) {
+                e.printStackTrace();
+                return;
+            }
+            federate.throttled = active.getValue() != 0;
+            log("Backpressure " + (federate.throttled ? "on" : "off") + ", queue backlog " + backlog.getValue());
+        } else if (interactionClass.equals(federate.customerIdsLeasedHandle)) {
+            HLAopaqueData producer = federate.encoderFactory.createHLAopaqueData();
+            HLAinteger32BE requestId = new HLA1516eInteger32BE();
+            HLAinteger32BE firstId = new HLA1516eInteger32BE();
+            HLAinteger32BE blockSize = new HLA1516eInteger32BE();
+            try {
+                producer.decode(theParameters.get(federate.customerIdsLeasedProducerHandle));
+                requestId.decode(theParameters.get(federate.customerIdsLeasedRequestIdHandle));
+                firstId.decode(theParameters.get(federate.customerIdsLeasedFirstIdHandle));
+                blockSize.decode(theParameters.get(federate.customerIdsLeasedBlockSizeHandle));
+            } catch (DecoderException e) {
+                e.printStackTrace();
+                return;
+            }
+            // every producer hears every lease, only the one named takes it
+            if (federate.isThisFederate(producer.getValue())) {
+                federate.customerIdsLeased(requestId.getValue(), firstId.getValue(), blockSize.getValue());
+            }
+        }
     }
 
     @Override
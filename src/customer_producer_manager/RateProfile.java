@@ -0,0 +1,164 @@
+package customer_producer_manager;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Arrival rate over one period, such as a business day, given at breakpoints and interpolated
+ * linearly between them; the profile repeats after the last breakpoint. For thinning each
+ * segment keeps a constant envelope, the larger of its end rates, together with the inverse
+ * of the envelope and the slope, so the rate at a time inside a known segment costs one
+ * multiply-add. Steep segments are split until the rate varies by at most
+ * {@link #ENVELOPE_TOLERANCE} of the envelope, which keeps at least that share of the
+ * thinning candidates.
+ */
+public class RateProfile {
+    static final double ENVELOPE_TOLERANCE = 0.05;
+    private static final int MAX_SPLITS = 256;
+
+    private final double period;
+    // per segment, starting at segmentStarts[i] and ending at segmentStarts[i + 1]
+    private final double[] segmentStarts;
+    private final double[] startRates;
+    private final double[] slopes;
+    private final double[] envelopes;
+    private final double[] inverseEnvelopes;
+
+    /**
+     * @param times breakpoints, strictly increasing from 0; the last one is the period
+     * @param rates arrival rate per time unit at each breakpoint
+     */
+    public RateProfile(double[] times, double[] rates) {
+        int breakpoints = times.length;
+        if (breakpoints < 2 || rates.length != breakpoints || times[0] != 0) {
+            throw new IllegalArgumentException("Need at least two breakpoints starting at time 0, and a rate for each");
+        }
+        double maxRate = 0;
+        int[] splits = new int[breakpoints - 1];
+        int segmentCount = 0;
+        for (int i = 0; i < breakpoints; i++) {
+            if (rates[i] < 0 || (i > 0 && !(times[i] > times[i - 1]))) {
+                throw new IllegalArgumentException("Bad breakpoint " + i + " at time " + times[i] + " with rate " + rates[i]);
+            }
+            maxRate = Math.max(maxRate, rates[i]);
+            if (i > 0) {
+                double variation = Math.abs(rates[i] - rates[i - 1]) / Math.max(rates[i], rates[i - 1]);
+                splits[i - 1] = variation > 0 ? (int) Math.min(MAX_SPLITS, Math.ceil(variation / ENVELOPE_TOLERANCE)) : 1;
+                segmentCount += splits[i - 1];
+            }
+        }
+        if (!(maxRate > 0)) {
+            throw new IllegalArgumentException("Rate profile has no arrivals");
+        }
+        period = times[breakpoints - 1];
+        segmentStarts = new double[segmentCount + 1];
+        startRates = new double[segmentCount];
+        slopes = new double[segmentCount];
+        envelopes = new double[segmentCount];
+        inverseEnvelopes = new double[segmentCount];
+        int segment = 0;
+        for (int i = 0; i + 1 < breakpoints; i++) {
+            double slope = (rates[i + 1] - rates[i]) / (times[i + 1] - times[i]);
+            double length = (times[i + 1] - times[i]) / splits[i];
+            for (int piece = 0; piece < splits[i]; piece++, segment++) {
+                segmentStarts[segment] = times[i] + piece * length;
+                startRates[segment] = rates[i] + slope * piece * length;
+                slopes[segment] = slope;
+                double endRate = piece + 1 < splits[i] ? startRates[segment] + slope * length : rates[i + 1];
+                envelopes[segment] = Math.max(startRates[segment], endRate);
+                inverseEnvelopes[segment] = envelopes[segment] > 0 ? 1 / envelopes[segment] : 0;
+            }
+        }
+        segmentStarts[segmentCount] = period;
+    }
+
+    /**
+     * Reads a profile with one breakpoint per line as {@code time,rate}. Blank lines and lines
+     * starting with {@code #} are skipped.
+     */
+    public static RateProfile fromFile(String path) throws IOException {
+        List<double[]> breakpoints = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                if (fields.length != 2) {
+                    throw new IOException(path + ":" + lineNumber + ": expected time,rate");
+                }
+                try {
+                    breakpoints.add(new double[]{
+                            Double.parseDouble(fields[0].trim()),
+                            Double.parseDouble(fields[1].trim())});
+                } catch (NumberFormatException e) {
+                    throw new IOException(path + ":" + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+        }
+        double[] times = new double[breakpoints.size()];
+        double[] rates = new double[breakpoints.size()];
+        for (int i = 0; i < breakpoints.size(); i++) {
+            times[i] = breakpoints.get(i)[0];
+            rates[i] = breakpoints.get(i)[1];
+        }
+        return new RateProfile(times, rates);
+    }
+
+    public double getPeriod() {
+        return period;
+    }
+
+    public int getSegmentCount() {
+        return startRates.length;
+    }
+
+    /**
+     * Start of the segment within the period; {@code getSegmentStart(getSegmentCount())} is
+     * the period.
+     */
+    public double getSegmentStart(int segment) {
+        return segmentStarts[segment];
+    }
+
+    public double getEnvelope(int segment) {
+        return envelopes[segment];
+    }
+
+    public double getInverseEnvelope(int segment) {
+        return inverseEnvelopes[segment];
+    }
+
+    /**
+     * Rate at {@code offset} time units into the segment.
+     */
+    public double getRate(int segment, double offset) {
+        return startRates[segment] + slopes[segment] * offset;
+    }
+
+    /**
+     * Segment containing the time of day, found by binary search.
+     */
+    public int findSegment(double timeInPeriod) {
+        int low = 0;
+        int high = startRates.length - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (segmentStarts[middle] <= timeInPeriod) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,22 @@
+package customer_producer_manager;
+
+import distribution.Distribution;
+
+import java.util.SplittableRandom;
+
+/**
+ * Arrivals separated by independent draws from one distribution; exponential gaps make it a
+ * homogeneous Poisson process.
+ */
+public class RenewalArrivalProcess implements ArrivalProcess {
+    private final Distribution interarrivalTime;
+
+    public RenewalArrivalProcess(Distribution interarrivalTime) {
+        this.interarrivalTime = interarrivalTime;
+    }
+
+    @Override
+    public double nextArrivalTime(double time, SplittableRandom random) {
+        return time + interarrivalTime.sample(random);
+    }
+}
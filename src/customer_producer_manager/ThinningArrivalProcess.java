@@ -0,0 +1,66 @@
+package customer_producer_manager;
+
+import distribution.Ziggurat;
+
+import java.util.SplittableRandom;
+
+/**
+ * Non-homogeneous Poisson arrivals following a {@link RateProfile}, generated by thinning
+ * (Lewis and Shedler). Candidates come from a Poisson process at the envelope rate of the
+ * current segment and are kept with probability rate / envelope. A candidate past the end of
+ * the segment is dropped and generation restarts at the boundary under the next segment's
+ * envelope, which the memorylessness of the exponential allows. The process keeps the
+ * segment it is in, so a draw costs one ziggurat exponential, one uniform and a multiply-add.
+ */
+public class ThinningArrivalProcess implements ArrivalProcess {
+    private final RateProfile profile;
+    private final int segmentCount;
+    // the segment of the last arrival, spanning [segmentStart, segmentEnd) in absolute time
+    private int segment;
+    private double periodStart;
+    private double segmentStart;
+    private double segmentEnd;
+
+    public ThinningArrivalProcess(RateProfile profile) {
+        this.profile = profile;
+        segmentCount = profile.getSegmentCount();
+        enterSegment(0, 0);
+    }
+
+    @Override
+    public double nextArrivalTime(double time, SplittableRandom random) {
+        if (time < segmentStart || time >= segmentEnd) {
+            locate(time);
+        }
+        double candidate = time;
+        while (true) {
+            candidate += Ziggurat.exponential(random) * profile.getInverseEnvelope(segment);
+            // a segment with zero envelope gives an infinite candidate and is skipped whole
+            if (candidate >= segmentEnd || profile.getEnvelope(segment) == 0) {
+                candidate = segmentEnd;
+                if (segment + 1 < segmentCount) {
+                    enterSegment(segment + 1, periodStart);
+                } else {
+                    enterSegment(0, periodStart + profile.getPeriod());
+                }
+                continue;
+            }
+            if (random.nextDouble() * profile.getEnvelope(segment) < profile.getRate(segment, candidate - segmentStart)) {
+                return candidate;
+            }
+        }
+    }
+
+    private void locate(double time) {
+        double period = profile.getPeriod();
+        double start = Math.floor(time / period) * period;
+        enterSegment(profile.findSegment(time - start), start);
+    }
+
+    private void enterSegment(int segment, double periodStart) {
+        this.segment = segment;
+        this.periodStart = periodStart;
+        segmentStart = periodStart + profile.getSegmentStart(segment);
+        segmentEnd = periodStart + profile.getSegmentStart(segment + 1);
+    }
+}
@@ -0,0 +1,146 @@
+package customer_producer_manager;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Replays the customers of an {@link ArrivalTrace} file. The file is memory-mapped one
+ * segment of at most {@link #SEGMENT_SIZE} bytes at a time and records are read with absolute
+ * gets straight from the mapping, so nothing is copied onto the heap and a trace of any
+ * length, such as a year of arrivals, costs only the page cache of the segment being read.
+ * Customer ids are taken in trace order from a {@link CustomerIdLease}, by default numbering
+ * them from 1. A trace is replayed as recorded, so backpressure does not slow it down.
+ */
+public class TraceArrivalSource implements ArrivalSource, Closeable {
+    // a whole number of records, and below the 2 GB limit of a single mapping
+    static final long SEGMENT_SIZE = (1L << 30) / ArrivalTrace.RECORD_SIZE * ArrivalTrace.RECORD_SIZE;
+
+    private final FileChannel channel;
+    private final long segmentSize;
+    private final long recordCount;
+    private long nextRecord;
+    private MappedByteBuffer segment;
+    private long segmentFirstRecord;
+    private long segmentEndRecord;
+    private final CustomerIdLease ids;
+    private int lastCustomerId;
+    private int lastCustomerClass;
+    private int lastServiceType;
+
+    public TraceArrivalSource(String path) throws IOException {
+        this(path, CustomerIdLease.unshared());
+    }
+
+    public TraceArrivalSource(String path, CustomerIdLease ids) throws IOException {
+        this(path, ids, SEGMENT_SIZE);
+    }
+
+    TraceArrivalSource(String path, CustomerIdLease ids, long segmentSize) throws IOException {
+        this.ids = ids;
+        this.segmentSize = segmentSize;
+        channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+        try {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, ArrivalTrace.HEADER_SIZE);
+            header.order(ByteOrder.BIG_ENDIAN);
+            if (header.getInt(ArrivalTrace.MAGIC_OFFSET) != ArrivalTrace.MAGIC) {
+                throw new IOException(path + ": not an arrival trace");
+            }
+            if (header.getInt(ArrivalTrace.VERSION_OFFSET) != ArrivalTrace.VERSION) {
+                throw new IOException(path + ": unsupported trace version " + header.getInt(ArrivalTrace.VERSION_OFFSET));
+            }
+            recordCount = header.getLong(ArrivalTrace.COUNT_OFFSET);
+            if (recordCount < 0 || channel.size() != ArrivalTrace.HEADER_SIZE + recordCount * ArrivalTrace.RECORD_SIZE) {
+                throw new IOException(path + ": size " + channel.size() + " does not match " + recordCount + " records");
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        if (recordCount > 0) {
+            mapSegment(0);
+        }
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Number of customers replayed so far.
+     */
+    public long getReplayedCount() {
+        return nextRecord;
+    }
+
+    @Override
+    public boolean hasArrivalDue(double time) {
+        return nextRecord < recordCount && timeOf(nextRecord) <= time;
+    }
+
+    @Override
+    public double getNextArrivalTime() {
+        return nextRecord < recordCount ? timeOf(nextRecord) : Double.POSITIVE_INFINITY;
+    }
+
+    @Override
+    public int produce() {
+        if (nextRecord >= recordCount) {
+            throw new IllegalStateException("Trace exhausted after " + recordCount + " arrivals");
+        }
+        int offset = offsetOf(nextRecord);
+        lastCustomerClass = segment.getInt(offset + ArrivalTrace.CLASS_OFFSET);
+        lastServiceType = segment.getInt(offset + ArrivalTrace.SERVICE_TYPE_OFFSET);
+        nextRecord++;
+        lastCustomerId = ids.nextId();
+        return lastCustomerId;
+    }
+
+    @Override
+    public int getLastCustomerClass() {
+        return lastCustomerClass;
+    }
+
+    @Override
+    public int getLastServiceType() {
+        return lastServiceType;
+    }
+
+    @Override
+    public void close() throws IOException {
+        segment = null;
+        channel.close();
+    }
+
+    private double timeOf(long record) {
+        return segment.getDouble(offsetOf(record) + ArrivalTrace.TIME_OFFSET);
+    }
+
+    /**
+     * Offset of the record in the current segment, moving the mapping forward when the record
+     * lies past it.
+     */
+    private int offsetOf(long record) {
+        if (record >= segmentEndRecord) {
+            try {
+                mapSegment(record);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot map trace at record " + record, e);
+            }
+        }
+        return (int) ((record - segmentFirstRecord) * ArrivalTrace.RECORD_SIZE);
+    }
+
+    private void mapSegment(long firstRecord) throws IOException {
+        long position = ArrivalTrace.HEADER_SIZE + firstRecord * ArrivalTrace.RECORD_SIZE;
+        long size = Math.min(segmentSize, channel.size() - position);
+        segment = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        segment.order(ByteOrder.BIG_ENDIAN);
+        segmentFirstRecord = firstRecord;
+        segmentEndRecord = firstRecord + size / ArrivalTrace.RECORD_SIZE;
+    }
+}
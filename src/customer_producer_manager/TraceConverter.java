@@ -0,0 +1,117 @@
+package customer_producer_manager;
+
+import queue_manager.CustomerClass;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Converts an arrival log in CSV to the binary {@link ArrivalTrace} format replayed by
+ * {@link TraceArrivalSource}. Each line is {@code time,customerClass[,serviceType]} with the
+ * class given by its code or its name ({@code VIP}, {@code BUSINESS}, {@code RETAIL}) and the
+ * service type defaulting to 0. Service types range over the {@value #MAX_SERVICE_TYPES} bits of
+ * a window's skill mask. Blank lines and lines starting with {@code #} are skipped.
+ * Arrival times must not decrease. The input is streamed, so logs of any size convert in
+ * constant memory.
+ *
+ * Usage: {@code TraceConverter input.csv output.trace}
+ */
+public class TraceConverter {
+    private static final int BUFFER_RECORDS = 4096;
+    static final int MAX_SERVICE_TYPES = Integer.SIZE;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: TraceConverter input.csv output.trace");
+            System.exit(2);
+        }
+        long records = convert(args[0], args[1]);
+        System.out.println("Wrote " + records + " arrivals to " + args[1]);
+    }
+
+    /**
+     * Converts the CSV file and returns the number of arrivals written.
+     */
+    public static long convert(String csvPath, String tracePath) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_RECORDS * ArrivalTrace.RECORD_SIZE).order(ByteOrder.BIG_ENDIAN);
+        long records = 0;
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(csvPath), StandardCharsets.UTF_8);
+             FileChannel out = FileChannel.open(Paths.get(tracePath), StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            // the record count is filled in once it is known
+            out.position(ArrivalTrace.HEADER_SIZE);
+            double previousTime = Double.NEGATIVE_INFINITY;
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                if (fields.length < 2 || fields.length > 3) {
+                    throw new IOException(csvPath + ":" + lineNumber + ": expected time,customerClass[,serviceType]");
+                }
+                double time;
+                int customerClass;
+                int serviceType;
+                try {
+                    time = Double.parseDouble(fields[0].trim());
+                    customerClass = parseCustomerClass(fields[1].trim());
+                    serviceType = fields.length == 3 ? Integer.parseInt(fields[2].trim()) : 0;
+                } catch (IllegalArgumentException e) {
+                    throw new IOException(csvPath + ":" + lineNumber + ": " + e.getMessage(), e);
+                }
+                if (customerClass < 0 || customerClass >= CustomerClass.count()) {
+                    throw new IOException(csvPath + ":" + lineNumber + ": unknown customer class " + customerClass);
+                }
+                if (serviceType < 0 || serviceType >= MAX_SERVICE_TYPES) {
+                    throw new IOException(csvPath + ":" + lineNumber + ": service type " + serviceType
+                            + " outside 0.." + (MAX_SERVICE_TYPES - 1));
+                }
+                if (!(time >= 0) || Double.isInfinite(time)) {
+                    throw new IOException(csvPath + ":" + lineNumber + ": bad arrival time " + time);
+                }
+                if (time < previousTime) {
+                    throw new IOException(csvPath + ":" + lineNumber + ": arrival at " + time + " before previous arrival at " + previousTime);
+                }
+                previousTime = time;
+
+                buffer.putDouble(time).putInt(customerClass).putInt(serviceType);
+                records++;
+                if (!buffer.hasRemaining()) {
+                    writeFully(out, buffer);
+                }
+            }
+            writeFully(out, buffer);
+
+            buffer.putInt(ArrivalTrace.MAGIC).putInt(ArrivalTrace.VERSION).putLong(records);
+            out.position(0);
+            writeFully(out, buffer);
+        }
+        return records;
+    }
+
+    private static int parseCustomerClass(String field) {
+        if (!field.isEmpty() && (Character.isDigit(field.charAt(0)) || field.charAt(0) == '-')) {
+            return Integer.parseInt(field);
+        }
+        return CustomerClass.valueOf(field.toUpperCase()).ordinal();
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+}
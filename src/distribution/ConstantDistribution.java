@@ -0,0 +1,21 @@
+package distribution;
+
+import java.util.SplittableRandom;
+
+public class ConstantDistribution implements Distribution {
+    private final double value;
+
+    public ConstantDistribution(double value) {
+        this.value = value;
+    }
+
+    @Override
+    public double sample(SplittableRandom random) {
+        return value;
+    }
+
+    @Override
+    public double mean() {
+        return value;
+    }
+}
@@ -0,0 +1,81 @@
+package distribution;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+/**
+ * A distribution of non-negative durations such as service times. Implementations hold only
+ * their precomputed parameters and draw from the caller's random stream, so sampling
+ * allocates nothing and one stream can serve any number of distributions.
+ */
+public interface Distribution {
+
+    double sample(SplittableRandom random);
+
+    double mean();
+
+    /**
+     * Builds a distribution from a spec of the form {@code name:arg:arg...}:
+     * {@code const:value}, {@code uniform:min:max}, {@code int-uniform:min:max} (whole numbers,
+     * both ends included), {@code exp:mean}, {@code erlang:k:mean}, {@code lognormal:mean:sd}
+     * or {@code empirical:path} with {@code path} a histogram file read by
+     * {@link EmpiricalDistribution#fromFile(String)}.
+     */
+    static Distribution forSpec(String spec) {
+        String[] parts = spec.trim().split(":", 2);
+        String name = parts[0].trim().toLowerCase();
+        String arguments = parts.length > 1 ? parts[1] : "";
+        if (name.equals("empirical")) {
+            try {
+                return EmpiricalDistribution.fromFile(arguments.trim());
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Cannot read histogram for: " + spec, e);
+            }
+        }
+        double[] values = parseArguments(spec, arguments);
+        switch (name) {
+            case "const":
+                requireArguments(spec, values, 1);
+                return new ConstantDistribution(values[0]);
+            case "uniform":
+                requireArguments(spec, values, 2);
+                return new UniformDistribution(values[0], values[1]);
+            case "int-uniform":
+                requireArguments(spec, values, 2);
+                return new IntUniformDistribution((int) values[0], (int) values[1]);
+            case "exp":
+                requireArguments(spec, values, 1);
+                return new ExponentialDistribution(values[0]);
+            case "erlang":
+                requireArguments(spec, values, 2);
+                return new ErlangDistribution((int) values[0], values[1]);
+            case "lognormal":
+                requireArguments(spec, values, 2);
+                return LogNormalDistribution.withMeanAndDeviation(values[0], values[1]);
+            default:
+                throw new IllegalArgumentException("Unknown distribution: " + spec);
+        }
+    }
+
+    static double[] parseArguments(String spec, String arguments) {
+        if (arguments.trim().isEmpty()) {
+            return new double[0];
+        }
+        String[] parts = arguments.split(":");
+        double[] values = new double[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            try {
+                values[i] = Double.parseDouble(parts[i].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Bad argument in distribution: " + spec, e);
+            }
+        }
+        return values;
+    }
+
+    static void requireArguments(String spec, double[] values, int count) {
+        if (values.length != count) {
+            throw new IllegalArgumentException("Expected " + count + " arguments in distribution: " + spec);
+        }
+    }
+}
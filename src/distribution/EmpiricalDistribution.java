@@ -0,0 +1,146 @@
+package distribution;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Histogram of observed durations. A bin is chosen in O(1) by Walker's alias method, built
+ * with Vose's algorithm, and the duration is drawn uniformly within the bin.
+ */
+public class EmpiricalDistribution implements Distribution {
+    private final double[] lowerBounds;
+    private final double[] widths;
+    private final double[] acceptance;
+    private final int[] aliases;
+    private final double mean;
+
+    /**
+     * @param lowerBounds lower edge of each bin
+     * @param upperBounds upper edge of each bin
+     * @param weights     relative frequency of each bin, not necessarily normalised
+     */
+    public EmpiricalDistribution(double[] lowerBounds, double[] upperBounds, double[] weights) {
+        int binCount = weights.length;
+        if (binCount == 0 || lowerBounds.length != binCount || upperBounds.length != binCount) {
+            throw new IllegalArgumentException("Need the same non-zero number of bounds and weights");
+        }
+        this.lowerBounds = lowerBounds.clone();
+        widths = new double[binCount];
+        acceptance = new double[binCount];
+        aliases = new int[binCount];
+
+        double totalWeight = 0;
+        for (int bin = 0; bin < binCount; bin++) {
+            if (weights[bin] < 0 || upperBounds[bin] < lowerBounds[bin]) {
+                throw new IllegalArgumentException("Bad histogram bin " + bin);
+            }
+            widths[bin] = upperBounds[bin] - lowerBounds[bin];
+            totalWeight += weights[bin];
+        }
+        if (!(totalWeight > 0)) {
+            throw new IllegalArgumentException("Histogram has no weight");
+        }
+
+        double weightedSum = 0;
+        double[] scaled = new double[binCount];
+        int[] small = new int[binCount];
+        int[] large = new int[binCount];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int bin = 0; bin < binCount; bin++) {
+            weightedSum += weights[bin] * (lowerBounds[bin] + widths[bin] / 2);
+            scaled[bin] = weights[bin] * binCount / totalWeight;
+            if (scaled[bin] < 1) {
+                small[smallCount++] = bin;
+            } else {
+                large[largeCount++] = bin;
+            }
+        }
+        mean = weightedSum / totalWeight;
+
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            acceptance[less] = scaled[less];
+            aliases[less] = more;
+            scaled[more] = scaled[more] + scaled[less] - 1;
+            if (scaled[more] < 1) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // what is left is 1 up to rounding
+        while (largeCount > 0) {
+            int bin = large[--largeCount];
+            acceptance[bin] = 1;
+            aliases[bin] = bin;
+        }
+        while (smallCount > 0) {
+            int bin = small[--smallCount];
+            acceptance[bin] = 1;
+            aliases[bin] = bin;
+        }
+    }
+
+    /**
+     * Reads a histogram with one bin per line as {@code lower,upper,weight}. Blank lines and
+     * lines starting with {@code #} are skipped.
+     */
+    public static EmpiricalDistribution fromFile(String path) throws IOException {
+        List<double[]> bins = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                if (fields.length != 3) {
+                    throw new IOException(path + ":" + lineNumber + ": expected lower,upper,weight");
+                }
+                try {
+                    bins.add(new double[]{
+                            Double.parseDouble(fields[0].trim()),
+                            Double.parseDouble(fields[1].trim()),
+                            Double.parseDouble(fields[2].trim())});
+                } catch (NumberFormatException e) {
+                    throw new IOException(path + ":" + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+        }
+        double[] lowerBounds = new double[bins.size()];
+        double[] upperBounds = new double[bins.size()];
+        double[] weights = new double[bins.size()];
+        for (int bin = 0; bin < bins.size(); bin++) {
+            lowerBounds[bin] = bins.get(bin)[0];
+            upperBounds[bin] = bins.get(bin)[1];
+            weights[bin] = bins.get(bin)[2];
+        }
+        return new EmpiricalDistribution(lowerBounds, upperBounds, weights);
+    }
+
+    @Override
+    public double sample(SplittableRandom random) {
+        double u = random.nextDouble() * acceptance.length;
+        int bin = (int) u;
+        if (u - bin >= acceptance[bin]) {
+            bin = aliases[bin];
+        }
+        return lowerBounds[bin] + random.nextDouble() * widths[bin];
+    }
+
+    @Override
+    public double mean() {
+        return mean;
+    }
+}
@@ -0,0 +1,33 @@
+package distribution;
+
+import java.util.SplittableRandom;
+
+/**
+ * Sum of {@code k} independent exponential phases with the same rate.
+ */
+public class ErlangDistribution implements Distribution {
+    private final int phases;
+    private final double phaseMean;
+
+    public ErlangDistribution(int phases, double mean) {
+        if (phases <= 0 || !(mean > 0)) {
+            throw new IllegalArgumentException("Need positive phases and mean, got: " + phases + ", " + mean);
+        }
+        this.phases = phases;
+        this.phaseMean = mean / phases;
+    }
+
+    @Override
+    public double sample(SplittableRandom random) {
+        double sum = 0;
+        for (int i = 0; i < phases; i++) {
+            sum += Ziggurat.exponential(random);
+        }
+        return sum * phaseMean;
+    }
+
+    @Override
+    public double mean() {
+        return phases * phaseMean;
+    }
+}
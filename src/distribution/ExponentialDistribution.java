@@ -0,0 +1,24 @@
+package distribution;
+
+import java.util.SplittableRandom;
+
+public class ExponentialDistribution implements Distribution {
+    private final double mean;
+
+    public ExponentialDistribution(double mean) {
+        if (!(mean > 0)) {
+            throw new IllegalArgumentException("Mean must be positive: " + mean);
+        }
+        this.mean = mean;
+    }
+
+    @Override
+    public double sample(SplittableRandom random) {
+        return Ziggurat.exponential(random) * mean;
+    }
+
+    @Override
+    public double mean() {
+        return mean;
+    }
+}
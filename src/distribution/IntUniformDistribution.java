@@ -0,0 +1,29 @@
+package distribution;
+
+import java.util.SplittableRandom;
+
+/**
+ * Whole numbers from min to max, both included, with equal probability.
+ */
+public class IntUniformDistribution implements Distribution {
+    private final int min;
+    private final int count;
+
+    public IntUniformDistribution(int min, int max) {
+        if (max < min) {
+            throw new IllegalArgumentException("Empty range: " + min + ".." + max);
+        }
+        this.min = min;
+        this.count = max - min + 1;
+    }
+
+    @Override
+    public double sample(SplittableRandom random) {
+        return min + random.nextInt(count);
+    }
+
+    @Override
+    public double mean() {
+        return min + (count - 1) / 2.0;
+    }
+}
@@ -0,0 +1,41 @@
+package distribution;
+
+import java.util.SplittableRandom;
+
+/**
+ * {@code exp(mu + sigma * Z)} for a standard normal {@code Z}.
+ */
+public class LogNormalDistribution implements Distribution {
+    private final double mu;
+    private final double sigma;
+
+    public LogNormalDistribution(double mu, double sigma) {
+        if (sigma < 0) {
+            throw new IllegalArgumentException("Sigma must not be negative: " + sigma);
+        }
+        this.mu = mu;
+        this.sigma = sigma;
+    }
+
+    /**
+     * Lognormal distribution with the given mean and standard deviation of the durations
+     * themselves, the way calibrated service times are usually reported.
+     */
+    public static LogNormalDistribution withMeanAndDeviation(double mean, double deviation) {
+        if (!(mean > 0)) {
+            throw new IllegalArgumentException("Mean must be positive: " + mean);
+        }
+        double variance = Math.log(1 + (deviation * deviation) / (mean * mean));
+        return new LogNormalDistribution(Math.log(mean) - variance / 2, Math.sqrt(variance));
+    }
+
+    @Override
+    public double sample(SplittableRandom random) {
+        return Math.exp(mu + sigma * Ziggurat.normal(random));
+    }
+
+    @Override
+    public double mean() {
+        return Math.exp(mu + sigma * sigma / 2);
+    }
+}
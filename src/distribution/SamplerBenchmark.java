@@ -0,0 +1,107 @@
+package distribution;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * Measures the cost of one sample for the ziggurat and alias samplers next to the textbook
+ * baselines they replace: inversion with a logarithm for the exponential,
+ * {@link Random#nextGaussian()} for the normal and a binary search of the cumulative weights
+ * for a histogram.
+ *
+ * Usage: {@code SamplerBenchmark [samples]}, default 20000000.
+ */
+public class SamplerBenchmark {
+    private static final int HISTOGRAM_BINS = 64;
+
+    public static void main(String[] args) {
+        int samples = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+
+        double[] lowerBounds = new double[HISTOGRAM_BINS];
+        double[] upperBounds = new double[HISTOGRAM_BINS];
+        double[] weights = new double[HISTOGRAM_BINS];
+        double[] cumulativeWeights = new double[HISTOGRAM_BINS];
+        Random weightRandom = new Random(42);
+        double totalWeight = 0;
+        for (int bin = 0; bin < HISTOGRAM_BINS; bin++) {
+            lowerBounds[bin] = bin;
+            upperBounds[bin] = bin + 1;
+            weights[bin] = weightRandom.nextDouble();
+            totalWeight += weights[bin];
+            cumulativeWeights[bin] = totalWeight;
+        }
+        EmpiricalDistribution empirical = new EmpiricalDistribution(lowerBounds, upperBounds, weights);
+
+        System.out.printf("%d samples per run%n", samples);
+        for (int round = 0; round < 3; round++) {
+            boolean warmup = round < 2;
+            SplittableRandom random = new SplittableRandom(42);
+            Random legacyRandom = new Random(42);
+
+            long start = System.nanoTime();
+            double sum = 0;
+            for (int i = 0; i < samples; i++) {
+                sum += Ziggurat.exponential(random);
+            }
+            report("ziggurat exponential", start, samples, sum, warmup);
+
+            start = System.nanoTime();
+            sum = 0;
+            for (int i = 0; i < samples; i++) {
+                sum += -Math.log(1.0 - random.nextDouble());
+            }
+            report("inversion exponential", start, samples, sum, warmup);
+
+            start = System.nanoTime();
+            sum = 0;
+            for (int i = 0; i < samples; i++) {
+                sum += Ziggurat.normal(random);
+            }
+            report("ziggurat normal", start, samples, sum, warmup);
+
+            start = System.nanoTime();
+            sum = 0;
+            for (int i = 0; i < samples; i++) {
+                sum += legacyRandom.nextGaussian();
+            }
+            report("Random.nextGaussian", start, samples, sum, warmup);
+
+            start = System.nanoTime();
+            sum = 0;
+            for (int i = 0; i < samples; i++) {
+                sum += empirical.sample(random);
+            }
+            report("alias histogram", start, samples, sum, warmup);
+
+            start = System.nanoTime();
+            sum = 0;
+            for (int i = 0; i < samples; i++) {
+                int bin = searchBin(cumulativeWeights, random.nextDouble() * totalWeight);
+                sum += lowerBounds[bin] + random.nextDouble() * (upperBounds[bin] - lowerBounds[bin]);
+            }
+            report("binary search histogram", start, samples, sum, warmup);
+        }
+    }
+
+    private static int searchBin(double[] cumulativeWeights, double target) {
+        int low = 0;
+        int high = cumulativeWeights.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cumulativeWeights[middle] <= target) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static void report(String sampler, long start, int samples, double sum, boolean warmup) {
+        long nanos = System.nanoTime() - start;
+        if (!warmup) {
+            // the mean is printed so the samples cannot be optimised away
+            System.out.printf("%-24s %6.2f ns/sample (mean %.3f)%n", sampler, (double) nanos / samples, sum / samples);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package distribution;
+
+import java.util.SplittableRandom;
+
+/**
+ * Continuous uniform distribution on [min, max).
+ */
+public class UniformDistribution implements Distribution {
+    private final double min;
+    private final double width;
+
+    public UniformDistribution(double min, double max) {
+        if (max < min) {
+            throw new IllegalArgumentException("Empty range: " + min + ".." + max);
+        }
+        this.min = min;
+        this.width = max - min;
+    }
+
+    @Override
+    public double sample(SplittableRandom random) {
+        return min + random.nextDouble() * width;
+    }
+
+    @Override
+    public double mean() {
+        return min + width / 2;
+    }
+}
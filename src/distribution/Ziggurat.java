@@ -0,0 +1,126 @@
+package distribution;
+
+import java.util.SplittableRandom;
+
+/**
+ * Standard normal and standard exponential variates by the ziggurat method of Marsaglia and
+ * Tsang, with 128 layers for the normal and 256 for the exponential. Almost every draw costs
+ * one 64-bit random number, a table lookup and a multiplication; only draws that fall outside
+ * the inner rectangles evaluate an exponential. The layer index comes from the low bits and
+ * the value from the high bits of the random number, so the two are independent.
+ */
+public final class Ziggurat {
+    private static final int NORMAL_LAYERS = 128;
+    private static final double NORMAL_TAIL = 3.442619855899;
+    private static final double NORMAL_AREA = 9.91256303526217e-3;
+    private static final long[] normalBounds = new long[NORMAL_LAYERS];
+    private static final double[] normalWidths = new double[NORMAL_LAYERS];
+    private static final double[] normalHeights = new double[NORMAL_LAYERS];
+
+    private static final int EXPONENTIAL_LAYERS = 256;
+    private static final double EXPONENTIAL_TAIL = 7.697117470131487;
+    private static final double EXPONENTIAL_AREA = 3.949659822581572e-3;
+    private static final long[] exponentialBounds = new long[EXPONENTIAL_LAYERS];
+    private static final double[] exponentialWidths = new double[EXPONENTIAL_LAYERS];
+    private static final double[] exponentialHeights = new double[EXPONENTIAL_LAYERS];
+
+    private static final double TWO_POW_31 = 2147483648.0;
+    private static final double TWO_POW_32 = 4294967296.0;
+
+    static {
+        double x = NORMAL_TAIL;
+        double previous = x;
+        double q = NORMAL_AREA / Math.exp(-0.5 * x * x);
+        normalBounds[0] = (long) ((x / q) * TWO_POW_31);
+        normalBounds[1] = 0;
+        normalWidths[0] = q / TWO_POW_31;
+        normalWidths[NORMAL_LAYERS - 1] = x / TWO_POW_31;
+        normalHeights[0] = 1;
+        normalHeights[NORMAL_LAYERS - 1] = Math.exp(-0.5 * x * x);
+        for (int i = NORMAL_LAYERS - 2; i >= 1; i--) {
+            x = Math.sqrt(-2 * Math.log(NORMAL_AREA / x + Math.exp(-0.5 * x * x)));
+            normalBounds[i + 1] = (long) ((x / previous) * TWO_POW_31);
+            previous = x;
+            normalHeights[i] = Math.exp(-0.5 * x * x);
+            normalWidths[i] = x / TWO_POW_31;
+        }
+
+        x = EXPONENTIAL_TAIL;
+        previous = x;
+        q = EXPONENTIAL_AREA / Math.exp(-x);
+        exponentialBounds[0] = (long) ((x / q) * TWO_POW_32);
+        exponentialBounds[1] = 0;
+        exponentialWidths[0] = q / TWO_POW_32;
+        exponentialWidths[EXPONENTIAL_LAYERS - 1] = x / TWO_POW_32;
+        exponentialHeights[0] = 1;
+        exponentialHeights[EXPONENTIAL_LAYERS - 1] = Math.exp(-x);
+        for (int i = EXPONENTIAL_LAYERS - 2; i >= 1; i--) {
+            x = -Math.log(EXPONENTIAL_AREA / x + Math.exp(-x));
+            exponentialBounds[i + 1] = (long) ((x / previous) * TWO_POW_32);
+            previous = x;
+            exponentialHeights[i] = Math.exp(-x);
+            exponentialWidths[i] = x / TWO_POW_32;
+        }
+    }
+
+    private Ziggurat() {
+    }
+
+    public static double normal(SplittableRandom random) {
+        while (true) {
+            long bits = random.nextLong();
+            int layer = (int) bits & (NORMAL_LAYERS - 1);
+            long value = bits >> 32;
+            double x = value * normalWidths[layer];
+            if (Math.abs(value) < normalBounds[layer]) {
+                return x;
+            }
+            if (layer == 0) {
+                return value > 0 ? NORMAL_TAIL + normalTail(random) : -NORMAL_TAIL - normalTail(random);
+            }
+            double y = normalHeights[layer] + nextOpenUnit(random) * (normalHeights[layer - 1] - normalHeights[layer]);
+            if (y < Math.exp(-0.5 * x * x)) {
+                return x;
+            }
+        }
+    }
+
+    public static double exponential(SplittableRandom random) {
+        while (true) {
+            long bits = random.nextLong();
+            int layer = (int) bits & (EXPONENTIAL_LAYERS - 1);
+            long value = bits >>> 32;
+            double x = value * exponentialWidths[layer];
+            if (value < exponentialBounds[layer]) {
+                return x;
+            }
+            if (layer == 0) {
+                return EXPONENTIAL_TAIL - Math.log(nextOpenUnit(random));
+            }
+            double y = exponentialHeights[layer] + nextOpenUnit(random) * (exponentialHeights[layer - 1] - exponentialHeights[layer]);
+            if (y < Math.exp(-x)) {
+                return x;
+            }
+        }
+    }
+
+    /**
+     * Distance beyond the tail start of a normal variate conditioned on lying in the tail.
+     */
+    private static double normalTail(SplittableRandom random) {
+        double x;
+        double y;
+        do {
+            x = -Math.log(nextOpenUnit(random)) / NORMAL_TAIL;
+            y = -Math.log(nextOpenUnit(random));
+        } while (y + y < x * x);
+        return x;
+    }
+
+    /**
+     * Uniform on (0, 1], safe to take the logarithm of.
+     */
+    private static double nextOpenUnit(SplittableRandom random) {
+        return 1.0 - random.nextDouble();
+    }
+}
@@ -1,18 +1,54 @@
 package logger_manager;
 
-import java.util.ArrayList;
-import java.util.List;
+import queue_manager.CustomerClass;
 
+import java.util.Arrays;
+
+/**
+ * Running totals of what the logger has seen. Queue lengths are kept as a sum and a count per
+ * queue, so recording one is O(1) and the memory does not grow with the length of the run.
+ */
 public class Logger {
-    private List<List<Integer>> queueLength;
+    private long[] queueLengthSums = new long[2];
+    private long[] queueLengthCounts = new long[2];
+    private final int[] assignedPerClass = new int[CustomerClass.count()];
+
+    public void recordQueueLength(int queueId, int size) {
+        if (queueId < 0) {
+            return;
+        }
+        if (queueId >= queueLengthSums.length) {
+            int capacity = Math.max(queueId + 1, queueLengthSums.length * 2);
+            queueLengthSums = Arrays.copyOf(queueLengthSums, capacity);
+            queueLengthCounts = Arrays.copyOf(queueLengthCounts, capacity);
+        }
+        queueLengthSums[queueId] += size;
+        queueLengthCounts[queueId]++;
+    }
+
+    /**
+     * Number of queues with at least one recorded length, counting up to the highest queue id seen.
+     */
+    public int getQueueCount() {
+        int count = queueLengthCounts.length;
+        while (count > 0 && queueLengthCounts[count - 1] == 0) {
+            count--;
+        }
+        return count;
+    }
+
+    public double getAverageQueueLength(int queueId) {
+        if (queueId >= queueLengthCounts.length || queueLengthCounts[queueId] == 0) {
+            return 0;
+        }
+        return (double) queueLengthSums[queueId] / queueLengthCounts[queueId];
+    }
 
-    public Logger(){
-        this.queueLength = new ArrayList<>();
-        this.queueLength.add(new ArrayList<>());
-        this.queueLength.add(new ArrayList<>());
+    public void recordAssignment(int customerClass) {
+        assignedPerClass[customerClass]++;
     }
 
-    public List<List<Integer>> getQueueLength() {
-        return queueLength;
+    public int getAssignedCount(int customerClass) {
+        return assignedPerClass[customerClass];
     }
 }
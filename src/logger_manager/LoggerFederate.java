@@ -9,6 +9,7 @@ import hla.rti1516e.exceptions.RTIexception;
 import hla.rti1516e.time.HLAfloat64Interval;
 import hla.rti1516e.time.HLAfloat64Time;
 import hla.rti1516e.time.HLAfloat64TimeFactory;
+import queue_manager.CustomerClass;
 
 import java.io.BufferedReader;
 import java.io.File;
@@ -25,25 +26,44 @@ public class LoggerFederate {
     private HLAfloat64TimeFactory timeFactory; // set when we join
     protected EncoderFactory encoderFactory;     // set when we join
     protected Logger logger = new Logger();
+    private final double summaryInterval = Double.parseDouble(System.getProperty("logger.summaryInterval", "60"));
+    private double nextSummaryTime = summaryInterval;
 
     protected InteractionClassHandle addCustomer;
     protected ParameterHandle addCustomerInteractionCustomerId;
+    protected ParameterHandle addCustomerInteractionCustomerClass;
+    protected ParameterHandle addCustomerInteractionServiceType;
+    protected InteractionClassHandle addCustomers;
+    protected ParameterHandle addCustomersCustomerIds;
+    protected ParameterHandle addCustomersCustomerClasses;
+    protected ParameterHandle addCustomersServiceTypes;
     protected InteractionClassHandle assignCustomerToQueue;
     protected ParameterHandle assignCustomerToQueueCustomerId;
     protected ParameterHandle assignCustomerToQueueQueueId;
+    protected ParameterHandle assignCustomerToQueueCustomerClass;
     protected InteractionClassHandle currentQueueSize;
     protected ParameterHandle currentQueueSizeQueueId;
     protected ParameterHandle currentQueueSizeSize;
+    protected InteractionClassHandle queueSizes;
+    protected ParameterHandle queueSizesSizes;
+    protected InteractionClassHandle windowStatistics;
+    protected ParameterHandle windowStatisticsStatistics;
     protected InteractionClassHandle customerChangeQueue;
     protected ParameterHandle customerChangeQueueCustomerId;
     protected ParameterHandle customerChangeQueueQueueId;
     protected InteractionClassHandle moveCustomerToWindow;
     protected ParameterHandle moveCustomerToWindowWindowId;
+    protected ParameterHandle moveCustomerToWindowCustomerId;
     protected InteractionClassHandle assignCustomerToWindow;
     protected ParameterHandle assignCustomerToWindowCustomerId;
     protected ParameterHandle assignCustomerToWindowWindowId;
     protected InteractionClassHandle freeWindow;
     protected ParameterHandle freeWindowWindowId;
+    protected ParameterHandle freeWindowServerSlot;
+    protected ParameterHandle freeWindowSkills;
+    protected InteractionClassHandle windowClosed;
+    protected ParameterHandle windowClosedWindowId;
+    protected ParameterHandle assignCustomerToWindowServerSlot;
 
 
     private void log(String message) {
@@ -120,7 +140,14 @@ public class LoggerFederate {
         while (fedamb.isRunning) {
             advanceTime(1.0);
             log("Time Advanced to " + fedamb.federateTime);
+            if (fedamb.federateTime >= nextSummaryTime) {
+                logSummary();
+                while (nextSummaryTime <= fedamb.federateTime) {
+                    nextSummaryTime += summaryInterval;
+                }
+            }
         }
+        logSummary();
 
         rtiamb.resignFederationExecution(ResignAction.DELETE_OBJECTS);
         log("Resigned from Federation");
@@ -135,6 +162,21 @@ public class LoggerFederate {
         }
     }
 
+    /**
+     * Logs the average length of every queue and the assignments per customer class so far.
+     */
+    private void logSummary() {
+        StringBuilder builder = new StringBuilder("Summary at ").append(fedamb.federateTime).append(':');
+        for (int queueId = 0; queueId < logger.getQueueCount(); queueId++) {
+            builder.append(String.format("%n\tAverage Queue %d is %.2f", queueId, logger.getAverageQueueLength(queueId)));
+        }
+        for (CustomerClass customerClass : CustomerClass.values()) {
+            builder.append(String.format("%n\tCustomers of class %s assigned to queues: %d",
+                    customerClass, logger.getAssignedCount(customerClass.ordinal())));
+        }
+        log(builder.toString());
+    }
+
     private void enableTimePolicy() throws Exception {
         HLAfloat64Interval lookahead = timeFactory.makeInterval(fedamb.federateLookahead);
         this.rtiamb.enableTimeRegulation(lookahead);
@@ -155,24 +197,46 @@ public class LoggerFederate {
         this.assignCustomerToQueue = injectSubscribeInteraction("HLAinteractionRoot.assignCustomerToQueue",
                 "assignCustomerToQueueCustomerId", "assignCustomerToQueueQueueId",
                 "customerId", "queueId");
+        this.addCustomerInteractionCustomerClass = rtiamb.getParameterHandle(addCustomer, "customerClass");
+        this.addCustomerInteractionServiceType = rtiamb.getParameterHandle(addCustomer, "serviceType");
+
+        this.addCustomers = injectSubscribeInteraction("HLAinteractionRoot.addCustomers",
+                "addCustomersCustomerIds", "addCustomersCustomerClasses",
+                "customerIds", "customerClasses");
+        this.addCustomersServiceTypes = rtiamb.getParameterHandle(addCustomers, "serviceTypes");
+        this.assignCustomerToQueueCustomerClass = rtiamb.getParameterHandle(assignCustomerToQueue, "customerClass");
 
         this.currentQueueSize = injectSubscribeInteraction("HLAinteractionRoot.currentQueueSize",
                 "currentQueueSizeQueueId", "currentQueueSizeSize",
                 "queueId", "size");
 
+        this.queueSizes = injectSubscribeInteraction("HLAinteractionRoot.queueSizes",
+                "queueSizesSizes", null,
+                "sizes", null);
+
+        this.windowStatistics = injectSubscribeInteraction("HLAinteractionRoot.windowStatistics",
+                "windowStatisticsStatistics", null,
+                "statistics", null);
+
         this.customerChangeQueue = injectSubscribeInteraction("HLAinteractionRoot.customerChangeQueue",
                 "customerChangeQueueCustomerId", "customerChangeQueueQueueId", "customerId", "queueId");
 
         this.moveCustomerToWindow = injectSubscribeInteraction("HLAinteractionRoot.moveCustomerToWindow",
-                "moveCustomerToWindowWindowId", null,
-                "windowId", null);
+                "moveCustomerToWindowWindowId", "moveCustomerToWindowCustomerId",
+                "windowId", "customerId");
 
         this.assignCustomerToWindow = injectSubscribeInteraction("HLAinteractionRoot.assignCustomerToWindow",
                 "assignCustomerToWindowCustomerId", "assignCustomerToWindowWindowId",
                 "customerId", "windowId");
 
         this.freeWindow = injectSubscribeInteraction("HLAinteractionRoot.freeWindow",
-                "freeWindowWindowId", null,
+                "freeWindowWindowId", "freeWindowServerSlot",
+                "windowId", "serverSlot");
+        this.assignCustomerToWindowServerSlot = rtiamb.getParameterHandle(assignCustomerToWindow, "serverSlot");
+        this.freeWindowSkills = rtiamb.getParameterHandle(freeWindow, "skills");
+
+        this.windowClosed = injectSubscribeInteraction("HLAinteractionRoot.windowClosed",
+                "windowClosedWindowId", null,
                 "windowId", null);
     }
 
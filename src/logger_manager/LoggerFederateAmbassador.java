@@ -2,14 +2,17 @@ package logger_manager;
 
 import hla.rti1516e.*;
 import hla.rti1516e.encoding.DecoderException;
+import hla.rti1516e.encoding.HLAfixedRecord;
+import hla.rti1516e.encoding.HLAfloat64BE;
 import hla.rti1516e.encoding.HLAinteger32BE;
+import hla.rti1516e.encoding.HLAvariableArray;
 import hla.rti1516e.exceptions.FederateInternalError;
 import hla.rti1516e.time.HLAfloat64Time;
 import org.portico.impl.hla1516e.types.encoding.HLA1516eInteger32BE;
+import queue_manager.CustomerClass;
+import queue_manager.Integer32ArrayCodec;
 import sun.reflect.generics.reflectiveObjects.NotImplementedException;
 
-import java.util.List;
-import java.util.OptionalDouble;
 
 
 public class LoggerFederateAmbassador extends NullFederateAmbassador {
@@ -154,12 +157,20 @@ public class LoggerFederateAmbassador extends NullFederateAmbassador {
 
         if (interactionClass.equals(federate.addCustomer)) {
             builder.append(" (AddCustomer)");
+        } else if (interactionClass.equals(federate.addCustomers)) {
+            builder.append(" (AddCustomers)");
         } else if (interactionClass.equals(federate.assignCustomerToQueue)) {
             builder.append(" (AssignCustomerToQueue)");
         } else if (interactionClass.equals(federate.freeWindow)) {
             builder.append(" (FreeWindow)");
         } else if (interactionClass.equals(federate.currentQueueSize)) {
             builder.append(" (CurrentQueueSize)");
+        } else if (interactionClass.equals(federate.queueSizes)) {
+            builder.append(" (QueueSizes)");
+        } else if (interactionClass.equals(federate.windowClosed)) {
+            builder.append(" (WindowClosed)");
+        } else if (interactionClass.equals(federate.windowStatistics)) {
+            builder.append(" (WindowStatistics)");
         } else if (interactionClass.equals(federate.customerChangeQueue)) {
             builder.append(" (CustomerChangeQueue)");
         } else if (interactionClass.equals(federate.moveCustomerToWindow)) {
@@ -176,7 +187,10 @@ public class LoggerFederateAmbassador extends NullFederateAmbassador {
 
         builder.append(", parameterCount=").append(theParameters.size()).append("\n");
 
-        int currentQueueSizeSize = 5;
+        if (interactionClass.equals(federate.currentQueueSize)) {
+            recordQueueLength(theParameters);
+        }
+
         for (ParameterHandle parameter : theParameters.keySet()) {
             builder.append("\tparamHandle=").append(parameter);
             byte[] value = theParameters.get(parameter);
@@ -187,6 +201,7 @@ public class LoggerFederateAmbassador extends NullFederateAmbassador {
                 if (parameter.equals(federate.addCustomerInteractionCustomerId) ||
                         parameter.equals(federate.assignCustomerToQueueCustomerId) ||
                         parameter.equals(federate.customerChangeQueueCustomerId) ||
+                        parameter.equals(federate.moveCustomerToWindowCustomerId) ||
                         parameter.equals(federate.assignCustomerToWindowCustomerId)) {
                     HLAinteger32BE id = new HLA1516eInteger32BE();
                     id.decode(value);
@@ -196,19 +211,97 @@ public class LoggerFederateAmbassador extends NullFederateAmbassador {
                         parameter.equals(federate.customerChangeQueueQueueId)) {
                     HLAinteger32BE id = new HLA1516eInteger32BE();
                     id.decode(value);
-                    currentQueueSizeSize = id.getValue();
                     builder.append(" (Queue ID=").append(id.getValue()).append(")");
                 } else if (parameter.equals(federate.moveCustomerToWindowWindowId) ||
                         parameter.equals(federate.freeWindowWindowId) ||
+                        parameter.equals(federate.windowClosedWindowId) ||
                         parameter.equals(federate.assignCustomerToWindowWindowId)) {
                     HLAinteger32BE id = new HLA1516eInteger32BE();
                     id.decode(value);
                     builder.append(" (Window ID=").append(id.getValue()).append(")");
+                } else if (parameter.equals(federate.freeWindowServerSlot) ||
+                        parameter.equals(federate.assignCustomerToWindowServerSlot)) {
+                    HLAinteger32BE slot = new HLA1516eInteger32BE();
+                    slot.decode(value);
+                    builder.append(" (Server Slot=").append(slot.getValue()).append(")");
+                } else if (parameter.equals(federate.addCustomersCustomerIds)) {
+                    int count = Integer32ArrayCodec.count(value);
+                    builder.append(" (Customer IDs=");
+                    for (int i = 0; i < count; i++) {
+                        builder.append(i > 0 ? "," : "").append(Integer32ArrayCodec.get(value, i));
+                    }
+                    builder.append(")");
+                } else if (parameter.equals(federate.addCustomersCustomerClasses)) {
+                    int count = Integer32ArrayCodec.count(value);
+                    builder.append(" (Customer Classes=");
+                    for (int i = 0; i < count; i++) {
+                        builder.append(i > 0 ? "," : "").append(CustomerClass.fromCode(Integer32ArrayCodec.get(value, i)));
+                    }
+                    builder.append(")");
+                } else if (parameter.equals(federate.addCustomersServiceTypes)) {
+                    int count = Integer32ArrayCodec.count(value);
+                    builder.append(" (Service Types=");
+                    for (int i = 0; i < count; i++) {
+                        builder.append(i > 0 ? "," : "").append(Integer32ArrayCodec.get(value, i));
+                    }
+                    builder.append(")");
+                } else if (parameter.equals(federate.addCustomerInteractionServiceType)) {
+                    HLAinteger32BE serviceType = new HLA1516eInteger32BE();
+                    serviceType.decode(value);
+                    builder.append(" (Service Type=").append(serviceType.getValue()).append(")");
+                } else if (parameter.equals(federate.freeWindowSkills)) {
+                    HLAinteger32BE skills = new HLA1516eInteger32BE();
+                    skills.decode(value);
+                    builder.append(" (Skills=").append(Integer.toBinaryString(skills.getValue())).append(")");
                 } else if (parameter.equals(federate.currentQueueSizeSize)) {
                     HLAinteger32BE size = new HLA1516eInteger32BE();
                     size.decode(value);
                     builder.append(" (Queue Size=").append(size.getValue()).append(")");
-                    federate.logger.getQueueLength().get(currentQueueSizeSize).add(size.getValue());
+                } else if (parameter.equals(federate.addCustomerInteractionCustomerClass) ||
+                        parameter.equals(federate.assignCustomerToQueueCustomerClass)) {
+                    HLAinteger32BE customerClass = new HLA1516eInteger32BE();
+                    customerClass.decode(value);
+                    builder.append(" (Customer Class=").append(CustomerClass.fromCode(customerClass.getValue())).append(")");
+                    if (parameter.equals(federate.assignCustomerToQueueCustomerClass)) {
+                        federate.logger.recordAssignment(customerClass.getValue());
+                    }
+                } else if (parameter.equals(federate.queueSizesSizes)) {
+                    HLAvariableArray<HLAfixedRecord> sizes = federate.encoderFactory.createHLAvariableArray(index -> {
+                        HLAfixedRecord record = federate.encoderFactory.createHLAfixedRecord();
+                        record.add(federate.encoderFactory.createHLAinteger32BE());
+                        record.add(federate.encoderFactory.createHLAinteger32BE());
+                        return record;
+                    });
+                    sizes.decode(value);
+                    for (HLAfixedRecord record : sizes) {
+                        int queueId = ((HLAinteger32BE) record.get(0)).getValue();
+                        int size = ((HLAinteger32BE) record.get(1)).getValue();
+                        builder.append(" (Queue ID=").append(queueId).append(", Queue Size=").append(size).append(")");
+                        federate.logger.recordQueueLength(queueId, size);
+                    }
+                } else if (parameter.equals(federate.windowStatisticsStatistics)) {
+                    HLAvariableArray<HLAfixedRecord> statistics = federate.encoderFactory.createHLAvariableArray(index -> {
+                        HLAfixedRecord record = federate.encoderFactory.createHLAfixedRecord();
+                        record.add(federate.encoderFactory.createHLAinteger32BE());
+                        record.add(federate.encoderFactory.createHLAinteger32BE());
+                        record.add(federate.encoderFactory.createHLAfloat64BE());
+                        record.add(federate.encoderFactory.createHLAfloat64BE());
+                        record.add(federate.encoderFactory.createHLAinteger32BE());
+                        record.add(federate.encoderFactory.createHLAfloat64BE());
+                        return record;
+                    });
+                    statistics.decode(value);
+                    for (HLAfixedRecord record : statistics) {
+                        int windowId = ((HLAinteger32BE) record.get(0)).getValue();
+                        int servers = ((HLAinteger32BE) record.get(1)).getValue();
+                        double busyTime = ((HLAfloat64BE) record.get(2)).getValue();
+                        double idleTime = ((HLAfloat64BE) record.get(3)).getValue();
+                        int served = ((HLAinteger32BE) record.get(4)).getValue();
+                        double meanServiceTime = ((HLAfloat64BE) record.get(5)).getValue();
+                        double utilization = busyTime + idleTime > 0 ? busyTime / (busyTime + idleTime) : 0;
+                        builder.append(String.format("%n\t\t(Window ID=%d, Servers=%d, Utilization=%.1f%%, Served=%d, Mean Service Time=%.2f)",
+                                windowId, servers, 100 * utilization, served, meanServiceTime));
+                    }
                 }
             } catch (DecoderException e) {
                 builder.append(" Error decoding parameter: ").append(e.getMessage());
@@ -218,16 +311,6 @@ public class LoggerFederateAmbassador extends NullFederateAmbassador {
         }
 
         log(builder.toString());
-        log("Average Queue 0 is " + calculateAverage(federate.logger.getQueueLength().get(0)));
-        log("Average Queue 1 is " + calculateAverage(federate.logger.getQueueLength().get(1)));
-    }
-
-    private double calculateAverage(List<Integer> numbers) {
-        OptionalDouble average = numbers.stream()
-                .mapToDouble(a -> a)
-                .average();
-
-        return average.orElse(0);
     }
 
     @Override
@@ -238,4 +321,26 @@ public class LoggerFederateAmbassador extends NullFederateAmbassador {
             throws FederateInternalError {
         log("Object Removed: handle=" + theObject);
     }
+
+    /**
+     * Records the length reported by a currentQueueSize interaction. Both parameters are read
+     * by handle, as the order of the parameter map is not defined.
+     */
+    private void recordQueueLength(ParameterHandleValueMap theParameters) {
+        byte[] queueIdBytes = theParameters.get(federate.currentQueueSizeQueueId);
+        byte[] sizeBytes = theParameters.get(federate.currentQueueSizeSize);
+        if (queueIdBytes == null || sizeBytes == null) {
+            return;
+        }
+        HLAinteger32BE queueId = new HLA1516eInteger32BE();
+        HLAinteger32BE size = new HLA1516eInteger32BE();
+        try {
+            queueId.decode(queueIdBytes);
+            size.decode(sizeBytes);
+        } catch (DecoderException e) {
+            e.printStackTrace();
+            return;
+        }
+        federate.logger.recordQueueLength(queueId.getValue(), size.getValue());
+    }
 }
@@ -0,0 +1,135 @@
+package queue_manager;
+
+/**
+ * Holds arriving customers in arrival order until the main loop routes them to a queue.
+ * Every time step drains the whole backlog unless full queues hold customers at the door;
+ * the counters show whether admission keeps up. Arrivals beyond the door capacity are
+ * turned away, and so are arrivals whose class or service type this bank does not know, since
+ * they come off the wire unchecked.
+ */
+public class AdmissionStage {
+    private final int doorCapacity;
+    private final int serviceTypeCount;
+    private final IntRingBuffer pending = new IntRingBuffer();
+    private final IntRingBuffer pendingClasses = new IntRingBuffer();
+    private final IntRingBuffer pendingServiceTypes = new IntRingBuffer();
+    private int admittedThisTick;
+    private int admittedLastTick;
+    private long admittedTotal;
+    private int peakBacklog;
+    private long rejectedTotal;
+    private long invalidTotal;
+
+    public AdmissionStage() {
+        this(Integer.MAX_VALUE, 1);
+    }
+
+    public AdmissionStage(int doorCapacity, int serviceTypeCount) {
+        this.doorCapacity = doorCapacity;
+        this.serviceTypeCount = serviceTypeCount;
+    }
+
+    /**
+     * True if the class is a known {@link CustomerClass} code and the service type is one the
+     * queues route.
+     */
+    public boolean isValid(int customerClass, int serviceType) {
+        return customerClass >= 0 && customerClass < CustomerClass.count()
+                && serviceType >= 0 && serviceType < serviceTypeCount;
+    }
+
+    /**
+     * Queues the arrival at the door. Returns false, counting the customer as rejected, if
+     * the door is already at capacity or the class or service type is out of range; check
+     * {@link #isValid(int, int)} to tell the two apart.
+     */
+    public boolean offer(int customerId, int customerClass, int serviceType) {
+        if (!isValid(customerClass, serviceType)) {
+            invalidTotal++;
+            rejectedTotal++;
+            return false;
+        }
+        if (pending.size() >= doorCapacity) {
+            rejectedTotal++;
+            return false;
+        }
+        pending.addLast(customerId);
+        pendingClasses.addLast(customerClass);
+        pendingServiceTypes.addLast(serviceType);
+        if (pending.size() > peakBacklog) {
+            peakBacklog = pending.size();
+        }
+        return true;
+    }
+
+    public boolean hasPending() {
+        return !pending.isEmpty();
+    }
+
+    public int nextCustomer() {
+        return pending.peekFirst();
+    }
+
+    public int nextCustomerClass() {
+        return pendingClasses.peekFirst();
+    }
+
+    public int nextServiceType() {
+        return pendingServiceTypes.peekFirst();
+    }
+
+    public int admitNext() {
+        admittedThisTick++;
+        admittedTotal++;
+        pendingClasses.pollFirst();
+        pendingServiceTypes.pollFirst();
+        return pending.pollFirst();
+    }
+
+    /**
+     * Drops the next waiting customer without admitting it.
+     */
+    public int rejectNext() {
+        rejectedTotal++;
+        pendingClasses.pollFirst();
+        pendingServiceTypes.pollFirst();
+        return pending.pollFirst();
+    }
+
+    /**
+     * Closes the current time step, making its admitted count available through
+     * {@link #getAdmittedLastTick()}.
+     */
+    public void completeTick() {
+        admittedLastTick = admittedThisTick;
+        admittedThisTick = 0;
+    }
+
+    public int getBacklog() {
+        return pending.size();
+    }
+
+    public int getPeakBacklog() {
+        return peakBacklog;
+    }
+
+    public int getAdmittedLastTick() {
+        return admittedLastTick;
+    }
+
+    public long getAdmittedTotal() {
+        return admittedTotal;
+    }
+
+    public long getRejectedTotal() {
+        return rejectedTotal;
+    }
+
+    /**
+     * Customers rejected for an out-of-range class or service type, included in
+     * {@link #getRejectedTotal()}.
+     */
+    public long getInvalidTotal() {
+        return invalidTotal;
+    }
+}
@@ -0,0 +1,21 @@
+package queue_manager;
+
+/**
+ * Service class of a customer, highest priority first. The ordinal is the value carried in
+ * the customerClass interaction parameters.
+ */
+public enum CustomerClass {
+    VIP,
+    BUSINESS,
+    RETAIL;
+
+    private static final CustomerClass[] VALUES = values();
+
+    public static CustomerClass fromCode(int code) {
+        return VALUES[code];
+    }
+
+    public static int count() {
+        return VALUES.length;
+    }
+}
@@ -0,0 +1,62 @@
+package queue_manager;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Leases blocks of customer ids to producer federates. Blocks are handed out consecutively
+ * from id 1, so no two producers ever get the same id. Producers are told apart by their
+ * encoded federate handle, which the RTI keeps unique. The last lease of every producer is
+ * remembered, so a request repeated after a lost answer gets the same block again instead of
+ * wasting a new one.
+ */
+public class CustomerIdLeaseRegistry {
+    public static final int MAX_BLOCK_SIZE = 1 << 20;
+
+    private long nextFreeId = 1;
+    // per producer handle: the last request id answered, the first id and size of its block
+    private final Map<ByteBuffer, int[]> lastLeases = new HashMap<>();
+
+    /**
+     * Returns the first id of the block leased for the request, of {@link #getLeasedSize(byte[])}
+     * ids, or -1 once the id space is used up. Sizes are clamped to 1..{@link #MAX_BLOCK_SIZE}.
+     */
+    public int lease(byte[] producer, int requestId, int blockSize) {
+        ByteBuffer key = ByteBuffer.wrap(producer.clone());
+        int[] last = lastLeases.get(key);
+        if (last != null && last[0] == requestId) {
+            return last[1];
+        }
+        int size = Math.max(1, Math.min(blockSize, MAX_BLOCK_SIZE));
+        int firstId;
+        if (nextFreeId + size - 1 > Integer.MAX_VALUE) {
+            firstId = -1;
+            size = 0;
+        } else {
+            firstId = (int) nextFreeId;
+            nextFreeId += size;
+        }
+        lastLeases.put(key, new int[]{requestId, firstId, size});
+        return firstId;
+    }
+
+    /**
+     * Size of the block last leased to the producer.
+     */
+    public int getLeasedSize(byte[] producer) {
+        int[] last = lastLeases.get(ByteBuffer.wrap(producer));
+        return last != null ? last[2] : 0;
+    }
+
+    /**
+     * Number of ids leased so far to all producers.
+     */
+    public long getLeasedCount() {
+        return nextFreeId - 1;
+    }
+
+    public int getProducerCount() {
+        return lastLeases.size();
+    }
+}
@@ -0,0 +1,86 @@
+package queue_manager;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Min-heap of customer ids keyed by the simulation time at which each customer should be
+ * looked at again. Deadlines and ids live in parallel primitive arrays, so scheduling and
+ * popping are O(log n) and allocation-free once the arrays have grown.
+ */
+public class DeadlineScheduler {
+    private double[] deadlines = new double[16];
+    private int[] customerIds = new int[16];
+    private int size;
+
+    public void schedule(int customerId, double deadline) {
+        if (size == deadlines.length) {
+            deadlines = Arrays.copyOf(deadlines, size * 2);
+            customerIds = Arrays.copyOf(customerIds, size * 2);
+        }
+        int position = size++;
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (deadlines[parent] <= deadline) {
+                break;
+            }
+            deadlines[position] = deadlines[parent];
+            customerIds[position] = customerIds[parent];
+            position = parent;
+        }
+        deadlines[position] = deadline;
+        customerIds[position] = customerId;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns true if the earliest deadline is at or before the given time.
+     */
+    public boolean hasExpired(double time) {
+        return size > 0 && deadlines[0] <= time;
+    }
+
+    public double peekDeadline() {
+        if (size == 0) {
+            throw new NoSuchElementException("No deadlines scheduled");
+        }
+        return deadlines[0];
+    }
+
+    /**
+     * Removes the customer with the earliest deadline and returns its id.
+     */
+    public int poll() {
+        if (size == 0) {
+            throw new NoSuchElementException("No deadlines scheduled");
+        }
+        int customerId = customerIds[0];
+        size--;
+        double deadline = deadlines[size];
+        int lastCustomerId = customerIds[size];
+        int position = 0;
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            if (child + 1 < size && deadlines[child + 1] < deadlines[child]) {
+                child++;
+            }
+            if (deadline <= deadlines[child]) {
+                break;
+            }
+            deadlines[position] = deadlines[child];
+            customerIds[position] = customerIds[child];
+            position = child;
+        }
+        deadlines[position] = deadline;
+        customerIds[position] = lastCustomerId;
+        return customerId;
+    }
+}
@@ -0,0 +1,15 @@
+package queue_manager;
+
+/**
+ * Order in which a {@link Queue} serves its customer classes.
+ */
+public enum DequeueDiscipline {
+    /** Always serve the highest non-empty class. */
+    STRICT,
+    /** Share service between the non-empty classes in proportion to their weights. */
+    WEIGHTED;
+
+    public static DequeueDiscipline forName(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+}
@@ -0,0 +1,73 @@
+package queue_manager;
+
+/**
+ * Binary indexed tree over int counts. Point updates, prefix sums and selecting the
+ * k-th counted index are all O(log n).
+ */
+public class FenwickTree {
+    private int[] tree;
+    private int highestStep;
+
+    public FenwickTree(int size) {
+        tree = new int[size + 1];
+        highestStep = Integer.highestOneBit(Math.max(size, 1));
+    }
+
+    public int capacity() {
+        return tree.length - 1;
+    }
+
+    public void add(int index, int delta) {
+        for (int i = index + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * Sum of the counts at indices {@code 0..index} inclusive; zero for a negative index.
+     */
+    public int prefixSum(int index) {
+        int sum = 0;
+        for (int i = index + 1; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Smallest index whose inclusive prefix sum exceeds {@code rank}, i.e. the index holding
+     * the rank-th (0-based) counted element. Counts must be non-negative.
+     */
+    public int findByRank(int rank) {
+        int position = 0;
+        int remaining = rank + 1;
+        for (int step = highestStep; step > 0; step >>= 1) {
+            int next = position + step;
+            if (next < tree.length && tree[next] < remaining) {
+                position = next;
+                remaining -= tree[next];
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Resizes the tree to {@code size} indices and sets a count of one at indices
+     * {@code 0..filled-1} and zero elsewhere, in O(n).
+     */
+    public void resetFilledPrefix(int size, int filled) {
+        if (tree.length != size + 1) {
+            tree = new int[size + 1];
+            highestStep = Integer.highestOneBit(Math.max(size, 1));
+        }
+        for (int i = 1; i < tree.length; i++) {
+            tree[i] = i <= filled ? 1 : 0;
+        }
+        for (int i = 1; i < tree.length; i++) {
+            int parent = i + (i & -i);
+            if (parent < tree.length) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package queue_manager;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Keeps the windows waiting for a customer in a bitset and pairs them with the queues that
+ * serve them. A window with several servers counts how many of them are idle and stays in the
+ * set until all of them have a customer. A matching pass walks only the set bits, so its cost
+ * follows the number of idle windows rather than the total number of windows. Each idle window
+ * carries the queue lanes its skills cover; a window is paired only when that mask ANDed with
+ * the queue's occupied lanes is non-zero, which costs the same as the plain emptiness test.
+ */
+public class IdleWindowMatcher {
+    private final BitSet idleWindows = new BitSet();
+    private int[] idleServers = new int[16];
+    private long[] eligibleLanes = new long[16];
+    private int idleServerTotal;
+    private int[] matchedWindowIds = new int[16];
+    private int[] matchedCustomerIds = new int[16];
+    private int[] matchedCustomerClasses = new int[16];
+    private int[] matchedServiceTypes = new int[16];
+
+    /**
+     * Records that one more server of the window waits for a customer.
+     */
+    public void windowIdle(int windowId) {
+        windowIdle(windowId, Queue.ALL_LANES);
+    }
+
+    /**
+     * Records that one more server of the window waits for a customer from one of the given
+     * queue lanes.
+     */
+    public void windowIdle(int windowId, long lanes) {
+        if (windowId >= idleServers.length) {
+            int length = Math.max(windowId + 1, idleServers.length * 2);
+            idleServers = Arrays.copyOf(idleServers, length);
+            eligibleLanes = Arrays.copyOf(eligibleLanes, length);
+        }
+        eligibleLanes[windowId] = lanes;
+        idleServers[windowId]++;
+        idleServerTotal++;
+        idleWindows.set(windowId);
+    }
+
+    /**
+     * Forgets every idle server of the window.
+     */
+    public void windowBusy(int windowId) {
+        if (idleWindows.get(windowId)) {
+            idleServerTotal -= idleServers[windowId];
+            idleServers[windowId] = 0;
+            idleWindows.clear(windowId);
+        }
+    }
+
+    public boolean isIdle(int windowId) {
+        return idleWindows.get(windowId);
+    }
+
+    public int getIdleServerCount(int windowId) {
+        return windowId < idleServers.length ? idleServers[windowId] : 0;
+    }
+
+    public int getIdleCount() {
+        return idleServerTotal;
+    }
+
+    /**
+     * Takes a customer from the queue serving each idle window for every idle server of the
+     * window, as long as the queue has customers the window is skilled for. Matched servers
+     * become busy. Returns the number of pairs, readable through
+     * {@link #getMatchedWindowId(int)}, {@link #getMatchedCustomerId(int)},
+     * {@link #getMatchedCustomerClass(int)} and {@link #getMatchedServiceType(int)} until the
+     * next pass.
+     */
+    public int match(QueueBank queueBank) {
+        int matched = 0;
+        for (int windowId = idleWindows.nextSetBit(0); windowId >= 0; windowId = idleWindows.nextSetBit(windowId + 1)) {
+            int queueId = queueBank.queueForWindow(windowId);
+            long lanes = eligibleLanes[windowId];
+            while (idleServers[windowId] > 0 && queueBank.hasCustomerIn(queueId, lanes)) {
+                if (matched == matchedWindowIds.length) {
+                    matchedWindowIds = Arrays.copyOf(matchedWindowIds, matched * 2);
+                    matchedCustomerIds = Arrays.copyOf(matchedCustomerIds, matched * 2);
+                    matchedCustomerClasses = Arrays.copyOf(matchedCustomerClasses, matched * 2);
+                    matchedServiceTypes = Arrays.copyOf(matchedServiceTypes, matched * 2);
+                }
+                matchedWindowIds[matched] = windowId;
+                matchedCustomerIds[matched] = queueBank.pollCustomer(queueId, lanes);
+                matchedCustomerClasses[matched] = queueBank.getQueue(queueId).getLastPolledClass();
+                matchedServiceTypes[matched] = queueBank.getQueue(queueId).getLastPolledServiceType();
+                matched++;
+                idleServers[windowId]--;
+                idleServerTotal--;
+            }
+            if (idleServers[windowId] == 0) {
+                idleWindows.clear(windowId);
+            }
+        }
+        return matched;
+    }
+
+    public int getMatchedWindowId(int index) {
+        return matchedWindowIds[index];
+    }
+
+    public int getMatchedCustomerId(int index) {
+        return matchedCustomerIds[index];
+    }
+
+    public int getMatchedCustomerClass(int index) {
+        return matchedCustomerClasses[index];
+    }
+
+    public int getMatchedServiceType(int index) {
+        return matchedServiceTypes[index];
+    }
+}
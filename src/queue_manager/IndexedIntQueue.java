@@ -0,0 +1,143 @@
+package queue_manager;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * FIFO of distinct ints (customer ids) that also supports O(log n) access by position and
+ * removal from the middle. Values occupy consecutive slots of a power-of-two ring; a
+ * {@link FenwickTree} counts the occupied slots and an {@link IntIntHashMap} maps each value
+ * to its slot, so leaving the queue just empties the slot. Emptied slots are skipped at the
+ * head and compacted away when the ring fills up.
+ */
+public class IndexedIntQueue {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int EMPTY_SLOT = Integer.MIN_VALUE;
+
+    private int[] slots = new int[INITIAL_CAPACITY];
+    private final FenwickTree occupied = new FenwickTree(INITIAL_CAPACITY);
+    private final IntIntHashMap slotByCustomer = new IntIntHashMap();
+    private int head;
+    private int span;
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int customerId) {
+        return slotByCustomer.containsKey(customerId);
+    }
+
+    public int getCustomer(int position) {
+        return slots[slotAt(position)];
+    }
+
+    /**
+     * Returns the 0-based position of the customer in the queue, or -1 if it is not queued.
+     */
+    public int positionOf(int customerId) {
+        int slot = slotByCustomer.get(customerId);
+        if (slot == IntIntHashMap.NO_VALUE) {
+            return -1;
+        }
+        int beforeHead = occupied.prefixSum(head - 1);
+        if (slot >= head) {
+            return occupied.prefixSum(slot) - beforeHead - 1;
+        }
+        return size - beforeHead + occupied.prefixSum(slot) - 1;
+    }
+
+    public void addCustomer(int customerId) {
+        if (span == slots.length) {
+            compact();
+        }
+        int slot = (head + span) & (slots.length - 1);
+        slots[slot] = customerId;
+        occupied.add(slot, 1);
+        slotByCustomer.put(customerId, slot);
+        span++;
+        size++;
+    }
+
+    public int pollCustomer() {
+        if (size == 0) {
+            throw new NoSuchElementException("Queue is empty");
+        }
+        int customerId = slots[head];
+        vacate(head);
+        return customerId;
+    }
+
+    public int removeCustomerAt(int position) {
+        int slot = slotAt(position);
+        int customerId = slots[slot];
+        vacate(slot);
+        return customerId;
+    }
+
+    public boolean removeCustomer(int customerId) {
+        int slot = slotByCustomer.get(customerId);
+        if (slot == IntIntHashMap.NO_VALUE) {
+            return false;
+        }
+        vacate(slot);
+        return true;
+    }
+
+    private int slotAt(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Position: " + position + ", size: " + size);
+        }
+        // once the occupied slots wrap around, the ones below head come last in queue order
+        int beforeHead = occupied.prefixSum(head - 1);
+        int fromHead = size - beforeHead;
+        if (position < fromHead) {
+            return occupied.findByRank(beforeHead + position);
+        }
+        return occupied.findByRank(position - fromHead);
+    }
+
+    private void vacate(int slot) {
+        int mask = slots.length - 1;
+        slotByCustomer.remove(slots[slot]);
+        slots[slot] = EMPTY_SLOT;
+        occupied.add(slot, -1);
+        size--;
+        while (span > 0 && slots[head] == EMPTY_SLOT) {
+            head = (head + 1) & mask;
+            span--;
+        }
+        while (span > 0 && slots[(head + span - 1) & mask] == EMPTY_SLOT) {
+            span--;
+        }
+    }
+
+    /**
+     * Moves the remaining customers to the front of the ring, doubling it only when more
+     * than half of the slots are still occupied.
+     */
+    private void compact() {
+        int capacity = size * 2 > slots.length ? slots.length << 1 : slots.length;
+        int[] compacted = new int[capacity];
+        Arrays.fill(compacted, EMPTY_SLOT);
+        int mask = slots.length - 1;
+        int next = 0;
+        for (int i = 0; i < span; i++) {
+            int customerId = slots[(head + i) & mask];
+            if (customerId != EMPTY_SLOT) {
+                compacted[next] = customerId;
+                slotByCustomer.put(customerId, next);
+                next++;
+            }
+        }
+        slots = compacted;
+        occupied.resetFilledPrefix(capacity, size);
+        head = 0;
+        span = size;
+    }
+}
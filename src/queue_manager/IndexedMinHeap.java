@@ -0,0 +1,122 @@
+package queue_manager;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap over the ids {@code 0..capacity-1} keyed by an int, with a position index
+ * so the key of any id can be changed in O(log n). Equal keys are ordered by id.
+ */
+public class IndexedMinHeap {
+    private final int[] heap;
+    private final int[] positions;
+    private final int[] keys;
+    private int size;
+
+    public IndexedMinHeap(int capacity) {
+        heap = new int[capacity];
+        positions = new int[capacity];
+        keys = new int[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int id) {
+        return positions[id] >= 0;
+    }
+
+    public int minId() {
+        return heap[0];
+    }
+
+    public int minKey() {
+        return keys[heap[0]];
+    }
+
+    public int keyOf(int id) {
+        return keys[id];
+    }
+
+    /**
+     * Inserts the id with the given key, or changes its key if it is already in the heap.
+     */
+    public void update(int id, int key) {
+        int position = positions[id];
+        if (position < 0) {
+            keys[id] = key;
+            heap[size] = id;
+            positions[id] = size;
+            siftUp(size++);
+            return;
+        }
+        int oldKey = keys[id];
+        keys[id] = key;
+        if (key < oldKey) {
+            siftUp(position);
+        } else if (key > oldKey) {
+            siftDown(position);
+        }
+    }
+
+    public void remove(int id) {
+        int position = positions[id];
+        if (position < 0) {
+            return;
+        }
+        int last = heap[--size];
+        positions[id] = -1;
+        if (position < size) {
+            heap[position] = last;
+            positions[last] = position;
+            siftUp(position);
+            siftDown(positions[last]);
+        }
+    }
+
+    private void siftUp(int position) {
+        int id = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            int parentId = heap[parent];
+            if (!less(id, parentId)) {
+                break;
+            }
+            heap[position] = parentId;
+            positions[parentId] = position;
+            position = parent;
+        }
+        heap[position] = id;
+        positions[id] = position;
+    }
+
+    private void siftDown(int position) {
+        int id = heap[position];
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            int right = child + 1;
+            if (right < size && less(heap[right], heap[child])) {
+                child = right;
+            }
+            int childId = heap[child];
+            if (!less(childId, id)) {
+                break;
+            }
+            heap[position] = childId;
+            positions[childId] = position;
+            position = child;
+        }
+        heap[position] = id;
+        positions[id] = position;
+    }
+
+    private boolean less(int a, int b) {
+        return keys[a] < keys[b] || (keys[a] == keys[b] && a < b);
+    }
+}
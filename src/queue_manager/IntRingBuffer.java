@@ -0,0 +1,112 @@
+package queue_manager;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Growable FIFO of primitive ints backed by a power-of-two ring. Pushing to the tail and
+ * popping from the head are O(1) and never box or shift the remaining elements.
+ */
+public class IntRingBuffer {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] elements;
+    private int head;
+    private int size;
+
+    public IntRingBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntRingBuffer(int initialCapacity) {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity < initialCapacity) {
+            capacity <<= 1;
+        }
+        elements = new int[capacity];
+    }
+
+    public void addLast(int value) {
+        if (size == elements.length) {
+            grow();
+        }
+        elements[(head + size) & (elements.length - 1)] = value;
+        size++;
+    }
+
+    public int peekFirst() {
+        if (size == 0) {
+            throw new NoSuchElementException("Ring buffer is empty");
+        }
+        return elements[head];
+    }
+
+    public int pollFirst() {
+        if (size == 0) {
+            throw new NoSuchElementException("Ring buffer is empty");
+        }
+        int value = elements[head];
+        head = (head + 1) & (elements.length - 1);
+        size--;
+        return value;
+    }
+
+    public int get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        return elements[(head + index) & (elements.length - 1)];
+    }
+
+    /**
+     * Removes the element at the given position, shifting whichever side of the ring is
+     * shorter so that removals close to either end stay cheap.
+     */
+    public int removeAt(int index) {
+        int value = get(index);
+        int mask = elements.length - 1;
+        if (index < size / 2) {
+            for (int i = index; i > 0; i--) {
+                elements[(head + i) & mask] = elements[(head + i - 1) & mask];
+            }
+            head = (head + 1) & mask;
+        } else {
+            for (int i = index; i < size - 1; i++) {
+                elements[(head + i) & mask] = elements[(head + i + 1) & mask];
+            }
+        }
+        size--;
+        return value;
+    }
+
+    public int indexOf(int value) {
+        int mask = elements.length - 1;
+        for (int i = 0; i < size; i++) {
+            if (elements[(head + i) & mask] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    private void grow() {
+        int[] grown = new int[elements.length << 1];
+        int firstPart = elements.length - head;
+        System.arraycopy(elements, head, grown, 0, firstPart);
+        System.arraycopy(elements, 0, grown, firstPart, head);
+        elements = grown;
+        head = 0;
+    }
+}
@@ -0,0 +1,63 @@
+package queue_manager;
+
+import hla.rti1516e.encoding.DecoderException;
+
+/**
+ * Reads and writes the HLAvariableArray of HLAinteger32BE encoding directly: a big-endian
+ * element count followed by the big-endian elements, with no padding since both are four
+ * bytes wide. Elements are read in place from the received bytes, so decoding an array of any
+ * length allocates nothing, where the generic encoder would create one element object each.
+ */
+public final class Integer32ArrayCodec {
+    private static final int ELEMENT_SIZE = 4;
+
+    private Integer32ArrayCodec() {
+    }
+
+    /**
+     * Encodes the first {@code count} values into a new byte array.
+     */
+    public static byte[] encode(int[] values, int count) {
+        byte[] bytes = new byte[ELEMENT_SIZE * (count + 1)];
+        write(bytes, 0, count);
+        for (int i = 0; i < count; i++) {
+            write(bytes, ELEMENT_SIZE * (i + 1), values[i]);
+        }
+        return bytes;
+    }
+
+    /**
+     * Number of elements in the encoded array, checking that the bytes hold exactly that many.
+     */
+    public static int count(byte[] bytes) throws DecoderException {
+        if (bytes == null || bytes.length < ELEMENT_SIZE) {
+            throw new DecoderException("Integer32 array too short");
+        }
+        int count = read(bytes, 0);
+        if (count < 0 || bytes.length != ELEMENT_SIZE * ((long) count + 1)) {
+            throw new DecoderException("Integer32 array of " + bytes.length + " bytes cannot hold " + count + " elements");
+        }
+        return count;
+    }
+
+    /**
+     * Element at the index of an array whose size was checked by {@link #count(byte[])}.
+     */
+    public static int get(byte[] bytes, int index) {
+        return read(bytes, ELEMENT_SIZE * (index + 1));
+    }
+
+    private static int read(byte[] bytes, int offset) {
+        return (bytes[offset] << 24)
+                | (bytes[offset + 1] & 0xFF) << 16
+                | (bytes[offset + 2] & 0xFF) << 8
+                | (bytes[offset + 3] & 0xFF);
+    }
+
+    private static void write(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+}
@@ -0,0 +1,41 @@
+package queue_manager;
+
+import java.util.BitSet;
+
+/**
+ * Sends every customer to the currently shortest queue serving it, lowest id first on ties.
+ * Queue lengths are mirrored in an {@link IndexedMinHeap}, so each enqueue and dequeue costs
+ * O(log K) and picking the queue is O(1) while the shortest queue of all serves the customer.
+ * Otherwise, as when windows differ in skills or one has closed, the serving queues are
+ * scanned, O(K / 64 + serving queues).
+ */
+public class JoinShortestQueueRoutingPolicy implements RoutingPolicy {
+    private final IndexedMinHeap lengths;
+
+    public JoinShortestQueueRoutingPolicy(QueueBank queueBank) {
+        lengths = new IndexedMinHeap(queueBank.getQueueCount());
+        for (int queueId = 0; queueId < queueBank.getQueueCount(); queueId++) {
+            lengths.update(queueId, queueBank.size(queueId));
+        }
+    }
+
+    @Override
+    public int selectQueue(BitSet candidates) {
+        int shortest = lengths.minId();
+        if (candidates.get(shortest)) {
+            return shortest;
+        }
+        shortest = candidates.nextSetBit(0);
+        for (int queueId = candidates.nextSetBit(shortest + 1); queueId >= 0; queueId = candidates.nextSetBit(queueId + 1)) {
+            if (lengths.keyOf(queueId) < lengths.keyOf(shortest)) {
+                shortest = queueId;
+            }
+        }
+        return shortest;
+    }
+
+    @Override
+    public void queueSizeChanged(int queueId, int size) {
+        lengths.update(queueId, size);
+    }
+}
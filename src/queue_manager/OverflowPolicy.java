@@ -0,0 +1,17 @@
+package queue_manager;
+
+/**
+ * What happens to an admitted customer whose chosen queue is at capacity.
+ */
+public enum OverflowPolicy {
+    /** Turn the customer away. */
+    REJECT,
+    /** Send the customer to the next queue with room that serves its service type, turning it away if none has. */
+    DIVERT,
+    /** Keep the customer, and everyone behind it, waiting at the door until room frees up. */
+    HOLD;
+
+    public static OverflowPolicy forName(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+}
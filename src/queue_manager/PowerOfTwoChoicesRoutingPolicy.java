@@ -0,0 +1,35 @@
+package queue_manager;
+
+import java.util.BitSet;
+import java.util.Random;
+
+/**
+ * Samples two distinct queues serving the customer at random and picks the shorter one.
+ */
+public class PowerOfTwoChoicesRoutingPolicy implements RoutingPolicy {
+    private final QueueBank queueBank;
+    private final Random random;
+
+    public PowerOfTwoChoicesRoutingPolicy(QueueBank queueBank, Random random) {
+        this.queueBank = queueBank;
+        this.random = random;
+    }
+
+    @Override
+    public int selectQueue(BitSet candidates) {
+        int candidateCount = candidates.cardinality();
+        int first = random.nextInt(candidateCount);
+        if (candidateCount == 1) {
+            return candidates.nextSetBit(0);
+        }
+        int second = random.nextInt(candidateCount - 1);
+        if (second >= first) {
+            second++;
+        }
+        if (candidateCount < queueBank.getQueueCount()) {
+            first = RoutingPolicy.nthCandidate(candidates, first);
+            second = RoutingPolicy.nthCandidate(candidates, second);
+        }
+        return queueBank.size(second) < queueBank.size(first) ? second : first;
+    }
+}
@@ -1,25 +1,276 @@
 package queue_manager;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.NoSuchElementException;
 
+/**
+ * A queue with one {@link IndexedIntQueue} lane per {@link CustomerClass} and service type,
+ * lane {@code customerClass * serviceTypeCount + serviceType}. A bitmask of the non-empty
+ * lanes lets a dequeue find the lane to serve without looking at empty lanes, and ANDing it
+ * with the lanes a window is skilled for restricts the choice to customers the window can
+ * serve. The class is picked under {@link DequeueDiscipline#STRICT} as the highest eligible
+ * class, under {@link DequeueDiscipline#WEIGHTED} by a smooth weighted round-robin over the
+ * eligible classes; within the class the eligible service types take turns.
+ * Positions count customers in lane order, highest class first.
+ */
 public class Queue {
-    private int id;
-    private List<Integer> queue = new ArrayList<>();
+    public static final long ALL_LANES = -1L;
+    public static final int MAX_LANES = Long.SIZE;
+
+    private final int id;
+    private final IndexedIntQueue[] lanes;
+    private final int serviceTypeCount;
+    private final long typeMask;
+    private final DequeueDiscipline discipline;
+    private final int[] weights;
+    private final int[] credits;
+    // per class, the service type to look at first on the next dequeue
+    private final int[] typeCursors;
+    private long occupancy;
+    private int size;
+    private int lastPolledLane = -1;
 
     public Queue(int id) {
+        this(id, DequeueDiscipline.STRICT, null, 1);
+    }
+
+    /**
+     * @param classWeights service share of each class under {@link DequeueDiscipline#WEIGHTED},
+     *                     indexed by class; null gives every class the same share
+     */
+    public Queue(int id, DequeueDiscipline discipline, int[] classWeights, int serviceTypeCount) {
+        int classCount = CustomerClass.count();
+        if (serviceTypeCount < 1 || classCount * serviceTypeCount > MAX_LANES) {
+            throw new IllegalArgumentException("Unsupported number of service types: " + serviceTypeCount);
+        }
         this.id = id;
+        this.discipline = discipline;
+        this.serviceTypeCount = serviceTypeCount;
+        typeMask = serviceTypeCount == Long.SIZE ? -1L : (1L << serviceTypeCount) - 1;
+        lanes = new IndexedIntQueue[classCount * serviceTypeCount];
+        for (int lane = 0; lane < lanes.length; lane++) {
+            lanes[lane] = new IndexedIntQueue();
+        }
+        weights = new int[classCount];
+        credits = new int[classCount];
+        typeCursors = new int[classCount];
+        for (int customerClass = 0; customerClass < classCount; customerClass++) {
+            weights[customerClass] = classWeights != null ? classWeights[customerClass] : 1;
+        }
     }
 
-    public List<Integer> getQueue() {
-        return queue;
+    /**
+     * Lanes holding customers of the service types in {@code skills}, bit {@code t} standing
+     * for service type {@code t}.
+     */
+    public static long lanesForSkills(int skills, int serviceTypeCount) {
+        long lanesOfOneClass = 0;
+        for (int serviceType = 0; serviceType < serviceTypeCount && serviceType < Integer.SIZE; serviceType++) {
+            if ((skills & (1 << serviceType)) != 0) {
+                lanesOfOneClass |= 1L << serviceType;
+            }
+        }
+        long eligibleLanes = 0;
+        for (int customerClass = 0; customerClass < CustomerClass.count(); customerClass++) {
+            eligibleLanes |= lanesOfOneClass << (customerClass * serviceTypeCount);
+        }
+        return eligibleLanes;
     }
 
     public int getId() {
         return id;
     }
 
-    public void assignCustomerToQueue(int customerId) {
-        queue.add(customerId);
+    public int size() {
+        return size;
+    }
+
+    public int size(int customerClass) {
+        int count = 0;
+        for (int lane = customerClass * serviceTypeCount; lane < (customerClass + 1) * serviceTypeCount; lane++) {
+            count += lanes[lane].size();
+        }
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return occupancy == 0;
+    }
+
+    /**
+     * True if some customer in one of the given lanes is waiting.
+     */
+    public boolean hasCustomerIn(long eligibleLanes) {
+        return (occupancy & eligibleLanes) != 0;
+    }
+
+    public boolean contains(int customerId) {
+        return laneOf(customerId) >= 0;
+    }
+
+    /**
+     * Returns the class the customer is queued in, or -1 if it is not queued.
+     */
+    public int classOf(int customerId) {
+        int lane = laneOf(customerId);
+        return lane >= 0 ? lane / serviceTypeCount : -1;
+    }
+
+    /**
+     * Returns the service type the customer is queued for, or -1 if it is not queued.
+     */
+    public int serviceTypeOf(int customerId) {
+        int lane = laneOf(customerId);
+        return lane >= 0 ? lane % serviceTypeCount : -1;
+    }
+
+    private int laneOf(int customerId) {
+        for (long bits = occupancy; bits != 0; bits &= bits - 1) {
+            int lane = Long.numberOfTrailingZeros(bits);
+            if (lanes[lane].contains(customerId)) {
+                return lane;
+            }
+        }
+        return -1;
+    }
+
+    public int getCustomer(int position) {
+        int lane = laneAt(position);
+        return lanes[lane].getCustomer(position - sizeOfEarlierLanes(lane));
+    }
+
+    /**
+     * Returns the 0-based position of the customer in the queue, or -1 if it is not queued.
+     */
+    public int positionOf(int customerId) {
+        int lane = laneOf(customerId);
+        if (lane < 0) {
+            return -1;
+        }
+        return sizeOfEarlierLanes(lane) + lanes[lane].positionOf(customerId);
+    }
+
+    public void assignCustomerToQueue(int customerId, int customerClass, int serviceType) {
+        int lane = customerClass * serviceTypeCount + serviceType;
+        lanes[lane].addCustomer(customerId);
+        occupancy |= 1L << lane;
+        size++;
+    }
+
+    public int pollCustomer() {
+        return pollCustomer(ALL_LANES);
+    }
+
+    /**
+     * Dequeues the next customer among those in the given lanes.
+     */
+    public int pollCustomer(long eligibleLanes) {
+        long candidates = occupancy & eligibleLanes;
+        if (candidates == 0) {
+            throw new NoSuchElementException("Queue " + id + " has no eligible customer");
+        }
+        int customerClass = discipline == DequeueDiscipline.STRICT
+                ? Long.numberOfTrailingZeros(candidates) / serviceTypeCount
+                : nextWeightedClass(candidates);
+        int lane = nextLaneOfClass(customerClass, candidates);
+        int customerId = lanes[lane].pollCustomer();
+        left(lane);
+        lastPolledLane = lane;
+        return customerId;
+    }
+
+    /**
+     * Class of the customer returned by the last {@link #pollCustomer(long)}.
+     */
+    public int getLastPolledClass() {
+        return lastPolledLane / serviceTypeCount;
+    }
+
+    /**
+     * Service type of the customer returned by the last {@link #pollCustomer(long)}.
+     */
+    public int getLastPolledServiceType() {
+        return lastPolledLane % serviceTypeCount;
+    }
+
+    public int removeCustomerAt(int position) {
+        int lane = laneAt(position);
+        int customerId = lanes[lane].removeCustomerAt(position - sizeOfEarlierLanes(lane));
+        left(lane);
+        return customerId;
+    }
+
+    public boolean removeCustomer(int customerId) {
+        int lane = laneOf(customerId);
+        if (lane < 0) {
+            return false;
+        }
+        lanes[lane].removeCustomer(customerId);
+        left(lane);
+        return true;
+    }
+
+    private void left(int lane) {
+        size--;
+        if (lanes[lane].isEmpty()) {
+            occupancy &= ~(1L << lane);
+            int customerClass = lane / serviceTypeCount;
+            if ((classLanes(occupancy, customerClass)) == 0) {
+                credits[customerClass] = 0;
+            }
+        }
+    }
+
+    private long classLanes(long laneBits, int customerClass) {
+        return (laneBits >>> (customerClass * serviceTypeCount)) & typeMask;
+    }
+
+    /**
+     * First candidate lane of the class at or after the class's type cursor, wrapping around,
+     * and moves the cursor past it.
+     */
+    private int nextLaneOfClass(int customerClass, long candidates) {
+        long types = classLanes(candidates, customerClass);
+        int cursor = typeCursors[customerClass];
+        long fromCursor = types & (typeMask << cursor);
+        int serviceType = Long.numberOfTrailingZeros(fromCursor != 0 ? fromCursor : types);
+        typeCursors[customerClass] = serviceType + 1 < serviceTypeCount ? serviceType + 1 : 0;
+        return customerClass * serviceTypeCount + serviceType;
+    }
+
+    private int nextWeightedClass(long candidates) {
+        int chosen = -1;
+        int totalWeight = 0;
+        for (int customerClass = 0; customerClass < weights.length; customerClass++) {
+            if (classLanes(candidates, customerClass) == 0) {
+                continue;
+            }
+            credits[customerClass] += weights[customerClass];
+            totalWeight += weights[customerClass];
+            if (chosen < 0 || credits[customerClass] > credits[chosen]) {
+                chosen = customerClass;
+            }
+        }
+        credits[chosen] -= totalWeight;
+        return chosen;
+    }
+
+    private int laneAt(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Position: " + position + ", size: " + size);
+        }
+        int lane = 0;
+        while (position >= lanes[lane].size()) {
+            position -= lanes[lane].size();
+            lane++;
+        }
+        return lane;
+    }
+
+    private int sizeOfEarlierLanes(int lane) {
+        int count = 0;
+        for (int earlier = 0; earlier < lane; earlier++) {
+            count += lanes[earlier].size();
+        }
+        return count;
     }
 }
@@ -0,0 +1,339 @@
+package queue_manager;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Fixed set of queues addressed by their id, which is also their index. The number of
+ * queues is chosen at startup, and every window is served by queue {@code windowId % count}.
+ * The bank learns from the skills windows announce which queues have an open window for each
+ * service type, so customers are routed to a queue that will serve them. A queue whose last
+ * window for a type closes stops taking customers of that type until one reopens, and a
+ * queue no window is mapped to, when there are more queues than windows, never takes any
+ * once windows have announced themselves.
+ */
+public class QueueBank {
+    private final Queue[] queues;
+    private final IntIntHashMap queueByCustomer = new IntIntHashMap();
+    private final int capacity;
+    private final BitSet fullQueues = new BitSet();
+    private final BitSet allQueues;
+    private final BitSet queuesWithSpace = new BitSet();
+    private final int serviceTypeCount;
+    private final int allServiceTypes;
+    // per service type, the queues with an open window skilled for it, and those that ever had one
+    private final BitSet[] servingQueues;
+    private final BitSet[] skilledQueues;
+    // per service type and queue, how many open windows are skilled for the type
+    private final int[][] servingWindowCounts;
+    // per window, the service types it handles while open, 0 while closed or not yet seen
+    private int[] openWindowSkills = new int[16];
+    private QueueSizeListener sizeListener;
+
+    // queues touched since the last drainChangedQueues, each listed once
+    private final boolean[] touched;
+    private final int[] touchedQueueIds;
+    private int touchedCount;
+    private final int[] publishedSizes;
+
+    public QueueBank(int queueCount) {
+        this(queueCount, DequeueDiscipline.STRICT, null, Integer.MAX_VALUE, 1);
+    }
+
+    /**
+     * @param capacity         maximum number of customers waiting in each queue
+     * @param serviceTypeCount number of service types customers can ask for
+     */
+    public QueueBank(int queueCount, DequeueDiscipline discipline, int[] classWeights, int capacity, int serviceTypeCount) {
+        if (queueCount < 1) {
+            throw new IllegalArgumentException("Queue count must be positive, got " + queueCount);
+        }
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be positive, got " + capacity);
+        }
+        this.capacity = capacity;
+        this.serviceTypeCount = serviceTypeCount;
+        queues = new Queue[queueCount];
+        for (int i = 0; i < queueCount; i++) {
+            queues[i] = new Queue(i, discipline, classWeights, serviceTypeCount);
+        }
+        allQueues = new BitSet(queueCount);
+        allQueues.set(0, queueCount);
+        allServiceTypes = serviceTypeCount >= Integer.SIZE ? -1 : (1 << serviceTypeCount) - 1;
+        servingQueues = new BitSet[serviceTypeCount];
+        skilledQueues = new BitSet[serviceTypeCount];
+        servingWindowCounts = new int[serviceTypeCount][queueCount];
+        for (int serviceType = 0; serviceType < serviceTypeCount; serviceType++) {
+            servingQueues[serviceType] = new BitSet(queueCount);
+            skilledQueues[serviceType] = new BitSet(queueCount);
+        }
+        touched = new boolean[queueCount];
+        touchedQueueIds = new int[queueCount];
+        publishedSizes = new int[queueCount];
+        Arrays.fill(publishedSizes, -1);
+        for (int i = 0; i < queueCount; i++) {
+            markTouched(i);
+        }
+    }
+
+    public void setSizeListener(QueueSizeListener sizeListener) {
+        this.sizeListener = sizeListener;
+    }
+
+    public int getQueueCount() {
+        return queues.length;
+    }
+
+    public Queue getQueue(int queueId) {
+        return queues[queueId];
+    }
+
+    public int size(int queueId) {
+        return queues[queueId].size();
+    }
+
+    public boolean isEmpty(int queueId) {
+        return queues[queueId].isEmpty();
+    }
+
+    /**
+     * True if a customer in one of the given lanes waits in the queue.
+     */
+    public boolean hasCustomerIn(int queueId, long eligibleLanes) {
+        return queues[queueId].hasCustomerIn(eligibleLanes);
+    }
+
+    public int getServiceTypeCount() {
+        return serviceTypeCount;
+    }
+
+    /**
+     * Returns the id of the queue the customer waits in, or -1 if it is not queued.
+     */
+    public int queueOf(int customerId) {
+        return queueByCustomer.get(customerId);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public boolean isFull(int queueId) {
+        return fullQueues.get(queueId);
+    }
+
+    /**
+     * Returns the first queue with room that handles the service type, at or after
+     * {@code preferredQueueId} and wrapping around, or -1 if every such queue is full.
+     */
+    public int findQueueWithSpace(int serviceType, int preferredQueueId) {
+        BitSet serving = candidateQueues(serviceType);
+        if (serving.isEmpty()) {
+            int queueId = fullQueues.nextClearBit(preferredQueueId);
+            if (queueId >= queues.length) {
+                queueId = fullQueues.nextClearBit(0);
+            }
+            return queueId < queues.length ? queueId : -1;
+        }
+        for (int queueId = serving.nextSetBit(preferredQueueId); queueId >= 0; queueId = serving.nextSetBit(queueId + 1)) {
+            if (!fullQueues.get(queueId)) {
+                return queueId;
+            }
+        }
+        for (int queueId = serving.nextSetBit(0); queueId >= 0 && queueId < preferredQueueId; queueId = serving.nextSetBit(queueId + 1)) {
+            if (!fullQueues.get(queueId)) {
+                return queueId;
+            }
+        }
+        return -1;
+    }
+
+    public int queueForWindow(int windowId) {
+        return windowId % queues.length;
+    }
+
+    /**
+     * Records that the window is open and handles the service types in {@code skills}, so its
+     * queue serves them. Announcing an open window again with the same skills changes nothing.
+     * Returns true if some type had no open window before, so the customers of that type held
+     * in other queues may now be stranded.
+     */
+    public boolean openWindow(int windowId, int skills) {
+        skills &= allServiceTypes;
+        int unservedTypes = 0;
+        for (int serviceType = 0; serviceType < serviceTypeCount && serviceType < Integer.SIZE; serviceType++) {
+            if ((skills & (1 << serviceType)) != 0 && servingQueues[serviceType].isEmpty()) {
+                unservedTypes |= 1 << serviceType;
+            }
+        }
+        setWindowSkills(windowId, skills);
+        return unservedTypes != 0;
+    }
+
+    /**
+     * Records that the window has closed. Returns true if its queue no longer serves some
+     * service type as a result; the customers of that type waiting there are stranded until
+     * they are moved, see {@link #isStranded(int, int)}.
+     */
+    public boolean closeWindow(int windowId) {
+        int queueId = queueForWindow(windowId);
+        int lostTypes = windowId < openWindowSkills.length ? openWindowSkills[windowId] : 0;
+        setWindowSkills(windowId, 0);
+        for (int serviceType = 0; lostTypes != 0; serviceType++, lostTypes >>>= 1) {
+            if ((lostTypes & 1) != 0 && !servingQueues[serviceType].get(queueId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void setWindowSkills(int windowId, int skills) {
+        if (windowId >= openWindowSkills.length) {
+            openWindowSkills = Arrays.copyOf(openWindowSkills, Math.max(windowId + 1, openWindowSkills.length * 2));
+        }
+        int previous = openWindowSkills[windowId];
+        if (previous == skills) {
+            return;
+        }
+        openWindowSkills[windowId] = skills;
+        int queueId = queueForWindow(windowId);
+        int changed = previous ^ skills;
+        for (int serviceType = 0; changed != 0; serviceType++, changed >>>= 1) {
+            if ((changed & 1) == 0) {
+                continue;
+            }
+            if ((skills & (1 << serviceType)) != 0) {
+                servingWindowCounts[serviceType][queueId]++;
+                servingQueues[serviceType].set(queueId);
+                skilledQueues[serviceType].set(queueId);
+            } else if (--servingWindowCounts[serviceType][queueId] == 0) {
+                servingQueues[serviceType].clear(queueId);
+            }
+        }
+    }
+
+    /**
+     * True if an open window of the queue handles the service type. Until some window has
+     * announced the type, every queue is taken to handle it.
+     */
+    public boolean servesType(int queueId, int serviceType) {
+        return skilledQueues[serviceType].isEmpty() || servingQueues[serviceType].get(queueId);
+    }
+
+    /**
+     * True if the customer waits in a queue that no open window serves for its type while
+     * some other queue does, so moving it would get it served.
+     */
+    public boolean isStranded(int queueId, int serviceType) {
+        return !servesType(queueId, serviceType) && !servingQueues[serviceType].isEmpty();
+    }
+
+    /**
+     * The queues customers of the type should go to: those with an open window for it, or
+     * while all of those are closed the ones that had one, where service resumes first.
+     */
+    private BitSet candidateQueues(int serviceType) {
+        BitSet serving = servingQueues[serviceType];
+        return serving.isEmpty() ? skilledQueues[serviceType] : serving;
+    }
+
+    /**
+     * The queues the routing policy chooses among for a customer of the type: the
+     * {@link #candidateQueues(int) candidate queues}, or every queue while no window has
+     * announced the type. Never empty. The set belongs to the bank and must not be changed.
+     */
+    public BitSet routableQueues(int serviceType) {
+        BitSet candidates = candidateQueues(serviceType);
+        return candidates.isEmpty() ? allQueues : candidates;
+    }
+
+    /**
+     * The {@link #routableQueues(int) routable queues} of the type that are not full, possibly
+     * none. The set is reused by the next call.
+     */
+    public BitSet routableQueuesWithSpace(int serviceType) {
+        queuesWithSpace.clear();
+        queuesWithSpace.or(routableQueues(serviceType));
+        queuesWithSpace.andNot(fullQueues);
+        return queuesWithSpace;
+    }
+
+    public void assignCustomerToQueue(int queueId, int customerId, int customerClass, int serviceType) {
+        if (fullQueues.get(queueId)) {
+            throw new IllegalStateException("Queue " + queueId + " is full");
+        }
+        queues[queueId].assignCustomerToQueue(customerId, customerClass, serviceType);
+        queueByCustomer.put(customerId, queueId);
+        sizeChanged(queueId);
+    }
+
+    public int pollCustomer(int queueId) {
+        return pollCustomer(queueId, Queue.ALL_LANES);
+    }
+
+    /**
+     * Dequeues the next customer of the queue among those in the given lanes.
+     */
+    public int pollCustomer(int queueId, long eligibleLanes) {
+        int customerId = queues[queueId].pollCustomer(eligibleLanes);
+        queueByCustomer.remove(customerId);
+        sizeChanged(queueId);
+        return customerId;
+    }
+
+    /**
+     * Moves a queued customer to the back of its class in another queue, unless that queue
+     * is full or has no window for the customer's service type.
+     */
+    public boolean moveCustomer(int customerId, int fromQueueId, int toQueueId) {
+        int customerClass = queues[fromQueueId].classOf(customerId);
+        if (customerClass < 0 || fullQueues.get(toQueueId)) {
+            return false;
+        }
+        int serviceType = queues[fromQueueId].serviceTypeOf(customerId);
+        if (!servesType(toQueueId, serviceType)) {
+            return false;
+        }
+        queues[fromQueueId].removeCustomer(customerId);
+        queues[toQueueId].assignCustomerToQueue(customerId, customerClass, serviceType);
+        queueByCustomer.put(customerId, toQueueId);
+        sizeChanged(fromQueueId);
+        sizeChanged(toQueueId);
+        return true;
+    }
+
+    /**
+     * Writes the ids of the queues whose size differs from the one reported by the previous
+     * call into {@code changedQueueIds} and returns how many there are. Costs O(queues
+     * touched since then), not O(K). The first call reports every queue.
+     */
+    public int drainChangedQueues(int[] changedQueueIds) {
+        int changed = 0;
+        for (int i = 0; i < touchedCount; i++) {
+            int queueId = touchedQueueIds[i];
+            touched[queueId] = false;
+            int size = queues[queueId].size();
+            if (size != publishedSizes[queueId]) {
+                publishedSizes[queueId] = size;
+                changedQueueIds[changed++] = queueId;
+            }
+        }
+        touchedCount = 0;
+        return changed;
+    }
+
+    private void markTouched(int queueId) {
+        if (!touched[queueId]) {
+            touched[queueId] = true;
+            touchedQueueIds[touchedCount++] = queueId;
+        }
+    }
+
+    private void sizeChanged(int queueId) {
+        markTouched(queueId);
+        fullQueues.set(queueId, queues[queueId].size() >= capacity);
+        if (sizeListener != null) {
+            sizeListener.queueSizeChanged(queueId, queues[queueId].size());
+        }
+    }
+}
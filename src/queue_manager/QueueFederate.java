@@ -2,7 +2,9 @@ package queue_manager;
 
 import hla.rti1516e.*;
 import hla.rti1516e.encoding.EncoderFactory;
+import hla.rti1516e.encoding.HLAfixedRecord;
 import hla.rti1516e.encoding.HLAinteger32BE;
+import hla.rti1516e.encoding.HLAvariableArray;
 import hla.rti1516e.exceptions.FederatesCurrentlyJoined;
 import hla.rti1516e.exceptions.FederationExecutionAlreadyExists;
 import hla.rti1516e.exceptions.FederationExecutionDoesNotExist;
@@ -16,7 +18,9 @@ import java.io.File;
 import java.io.InputStreamReader;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.util.PriorityQueue;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
 import java.util.Random;
 
 
@@ -37,23 +41,94 @@ public class QueueFederate {
     protected AttributeHandle storageAvailableHandle;
     protected InteractionClassHandle getCustomerChangeQueue;
     protected InteractionClassHandle getCurrentQueueSize;
+    protected InteractionClassHandle getQueueSizes;
     protected InteractionClassHandle getMoveCustomerToWindow;
     protected InteractionClassHandle getAssignCustomerToQueue;
     protected InteractionClassHandle getAddCustomer;
+    protected InteractionClassHandle getAddCustomers;
     protected InteractionClassHandle getFreeWindow;
-    private Queue queue0 = new Queue(0);
-    private Queue queue1 = new Queue(1);
-    protected java.util.Queue<Integer> customersWaitingToAddToQueue = new PriorityQueue<>();
-    private int changeQueueTime = 0;
-    protected boolean window0IsWaitingForCustomer;
-    protected boolean window1IsWaitingForCustomer;
+    protected InteractionClassHandle getWindowClosed;
+    protected InteractionClassHandle getQueueBackpressure;
+    protected InteractionClassHandle getRequestCustomerIds;
+    private InteractionClassHandle customerIdsLeased;
+    private final QueueBank queueBank;
+    private final RoutingPolicy routingPolicy;
+    private final QueueSizePublishMode sizePublishMode;
+    private final int[] changedQueueIds;
+    private final Random rand = new Random();
+    protected final AdmissionStage admissionStage;
+    private final OverflowPolicy overflowPolicy;
+    private final int backpressureHighWatermark;
+    private final int backpressureLowWatermark;
+    private boolean backpressureActive;
+    private final DeadlineScheduler jockeyingScheduler = new DeadlineScheduler();
+    // queues that lost their last open window for some type since the previous pass
+    private final BitSet strandedQueues = new BitSet();
+    private final int maxReconsiderInterval;
+    private final IdleWindowMatcher idleWindowMatcher = new IdleWindowMatcher();
+    private final CustomerIdLeaseRegistry customerIdLeases = new CustomerIdLeaseRegistry();
 
     protected ParameterHandle customerIdHandle;
+    protected ParameterHandle customerClassHandle;
+    protected ParameterHandle serviceTypeHandle;
+    protected ParameterHandle customerIdsHandle;
+    protected ParameterHandle customerClassesHandle;
+    protected ParameterHandle serviceTypesHandle;
     protected ParameterHandle windowIdHandle;
+    protected ParameterHandle serverSlotHandle;
+    protected ParameterHandle skillsHandle;
+    protected ParameterHandle windowClosedWindowIdHandle;
+    private ParameterHandle currentQueueSizeQueueIdHandle;
+    private ParameterHandle currentQueueSizeSizeHandle;
+    private ParameterHandle assignCustomerToQueueCustomerIdHandle;
+    private ParameterHandle assignCustomerToQueueQueueIdHandle;
+    private ParameterHandle assignCustomerToQueueCustomerClassHandle;
+    private ParameterHandle customerChangeQueueCustomerIdHandle;
+    private ParameterHandle customerChangeQueueQueueIdHandle;
+    private ParameterHandle moveCustomerToWindowWindowIdHandle;
+    private ParameterHandle moveCustomerToWindowCustomerIdHandle;
+    private ParameterHandle moveCustomerToWindowCustomerClassHandle;
+    private ParameterHandle queueSizesSizesHandle;
+    private ParameterHandle queueBackpressureActiveHandle;
+    private ParameterHandle queueBackpressureBacklogHandle;
+    protected ParameterHandle requestCustomerIdsProducerHandle;
+    protected ParameterHandle requestCustomerIdsRequestIdHandle;
+    protected ParameterHandle requestCustomerIdsBlockSizeHandle;
+    private ParameterHandle customerIdsLeasedProducerHandle;
+    private ParameterHandle customerIdsLeasedRequestIdHandle;
+    private ParameterHandle customerIdsLeasedFirstIdHandle;
+    private ParameterHandle customerIdsLeasedBlockSizeHandle;
+
+    // reused for every send, the RTI copies the encoded values out of the map
+    private ParameterHandleValueMap currentQueueSizeParameters;
+    private ParameterHandleValueMap assignCustomerToQueueParameters;
+    private ParameterHandleValueMap customerChangeQueueParameters;
+    private ParameterHandleValueMap moveCustomerToWindowParameters;
+    private ParameterHandleValueMap queueSizesParameters;
+    private ParameterHandleValueMap queueBackpressureParameters;
+    private ParameterHandleValueMap customerIdsLeasedParameters;
+    private final List<HLAfixedRecord> queueSizeRecords = new ArrayList<>();
+    private HLAinteger32BE firstValueEncoder;
+    private HLAinteger32BE secondValueEncoder;
+    private HLAinteger32BE thirdValueEncoder;
 
     protected int storageMax = 0;
     protected int storageAvailable = 0;
 
+    public QueueFederate(QueueSettings settings) {
+        queueBank = new QueueBank(settings.queueCount, settings.discipline, settings.classWeights, settings.queueCapacity,
+                settings.serviceTypeCount);
+        maxReconsiderInterval = settings.maxReconsiderInterval;
+        sizePublishMode = settings.sizePublishMode;
+        overflowPolicy = settings.overflowPolicy;
+        admissionStage = new AdmissionStage(settings.doorCapacity, settings.serviceTypeCount);
+        backpressureHighWatermark = settings.backpressureHighWatermark;
+        backpressureLowWatermark = settings.backpressureLowWatermark;
+        changedQueueIds = new int[settings.queueCount];
+        routingPolicy = RoutingPolicy.forName(settings.routingPolicy, queueBank, rand);
+        queueBank.setSizeListener(routingPolicy);
+    }
+
     private void log(String message) {
         System.out.println("ConsumerFederate   : " + message);
     }
@@ -175,130 +250,57 @@ public class QueueFederate {
         // 10. do the main simulation loop //
         /////////////////////////////////////
 
-        Random rand = new Random();
         while (fedamb.isRunning) {
-            //send current queue0 size
-            ParameterHandleValueMap parameterHandleValueMap = rtiamb.getParameterHandleValueMapFactory().create(2);
-            ParameterHandle getCurrentQueueSizeHandleQueue0Id = rtiamb.getParameterHandle(getCurrentQueueSize, "queueId");
-            ParameterHandle getCurrentQueueSizeHandleQueue0Size = rtiamb.getParameterHandle(getCurrentQueueSize, "size");
-            HLAinteger32BE queue0Id = encoderFactory.createHLAinteger32BE(queue0.getId());
-            HLAinteger32BE queue0Size = encoderFactory.createHLAinteger32BE(queue0.getQueue().size());
-            parameterHandleValueMap.put(getCurrentQueueSizeHandleQueue0Id, queue0Id.toByteArray());
-            parameterHandleValueMap.put(getCurrentQueueSizeHandleQueue0Size, queue0Size.toByteArray());
-            rtiamb.sendInteraction(getCurrentQueueSize, parameterHandleValueMap, generateTag());
-//            //send current queue1 size
-            parameterHandleValueMap = rtiamb.getParameterHandleValueMapFactory().create(2);
-            ParameterHandle getCurrentQueueSizeHandleQueue1Id = rtiamb.getParameterHandle(getCurrentQueueSize, "queueId");
-            ParameterHandle getCurrentQueueSizeHandleQueue1Size = rtiamb.getParameterHandle(getCurrentQueueSize, "size");
-            HLAinteger32BE queue1Id = encoderFactory.createHLAinteger32BE(queue1.getId());
-            HLAinteger32BE queue1Size = encoderFactory.createHLAinteger32BE(queue1.getQueue().size());
-            parameterHandleValueMap.put(getCurrentQueueSizeHandleQueue1Id, queue1Id.toByteArray());
-            parameterHandleValueMap.put(getCurrentQueueSizeHandleQueue1Size, queue1Size.toByteArray());
-            rtiamb.sendInteraction(getCurrentQueueSize, parameterHandleValueMap, generateTag());
-
-
-            //assign customer to q0 or q1
-            Integer cid = customersWaitingToAddToQueue.poll();
-            int randomQueueIdNumber = rand.nextInt(2);
-            if (!customersWaitingToAddToQueue.isEmpty()) {
-                System.out.println(customersWaitingToAddToQueue.size());
-            }
-//            System.out.println(randomQueueIdNumber);
-//            System.out.println(cid);
-            if (randomQueueIdNumber == 0 && cid != null) {
-                queue0.getQueue().add(cid);
-
-                parameterHandleValueMap = rtiamb.getParameterHandleValueMapFactory().create(2);
-                ParameterHandle getAssignCustomerToQueueHandleQueue0Id = rtiamb.getParameterHandle(getAssignCustomerToQueue, "customerId");
-                ParameterHandle getAssignCustomerToQueueHandleQueue0Size = rtiamb.getParameterHandle(getAssignCustomerToQueue, "queueId");
-
-                HLAinteger32BE customerId = encoderFactory.createHLAinteger32BE(cid);
-                queue0Id = encoderFactory.createHLAinteger32BE(queue0.getId());
-                parameterHandleValueMap.put(getAssignCustomerToQueueHandleQueue0Id, customerId.toByteArray());
-                parameterHandleValueMap.put(getAssignCustomerToQueueHandleQueue0Size, queue0Id.toByteArray());
-                rtiamb.sendInteraction(getAssignCustomerToQueue, parameterHandleValueMap, generateTag());
-
-            } else if (randomQueueIdNumber == 1 && cid != null) {
-                queue1.getQueue().add(cid);
-
-                parameterHandleValueMap = rtiamb.getParameterHandleValueMapFactory().create(2);
-                ParameterHandle getAssignCustomerToQueueHandleQueue1Id = rtiamb.getParameterHandle(getAssignCustomerToQueue, "customerId");
-                ParameterHandle getAssignCustomerToQueueHandleQueue1Size = rtiamb.getParameterHandle(getAssignCustomerToQueue, "queueId");
-                HLAinteger32BE customerId = encoderFactory.createHLAinteger32BE(cid);
-                queue1Id = encoderFactory.createHLAinteger32BE(queue1.getId());
-                parameterHandleValueMap.put(getAssignCustomerToQueueHandleQueue1Id, customerId.toByteArray());
-                parameterHandleValueMap.put(getAssignCustomerToQueueHandleQueue1Size, queue1Id.toByteArray());
-                rtiamb.sendInteraction(getAssignCustomerToQueue, parameterHandleValueMap, generateTag());
-            }
-
-            //change customer in queue
-            if (fedamb.federateTime >= changeQueueTime) {
-                randomQueueIdNumber = rand.nextInt(2);
-
-                if (randomQueueIdNumber == 0 && !queue0.getQueue().isEmpty()) {
-
-                    int randomPositionInQueue = rand.nextInt(queue0.getQueue().size());
-                    int customerId = queue0.getQueue().get(randomPositionInQueue);
-
-                    if (randomPositionInQueue > queue1.getQueue().size() + 1) {
-                        queue0.getQueue().remove((Integer) customerId);
-                        queue1.getQueue().add(customerId);
-
-                        parameterHandleValueMap = rtiamb.getParameterHandleValueMapFactory().create(2);
-                        ParameterHandle getCustomerChangeQueueHandleCustomerId = rtiamb.getParameterHandle(getCustomerChangeQueue, "customerId");
-                        ParameterHandle getCustomerChangeQueueHandleQueueId = rtiamb.getParameterHandle(getCustomerChangeQueue, "queueId");
-                        HLAinteger32BE cusId = encoderFactory.createHLAinteger32BE(customerId);
-                        HLAinteger32BE queueId = encoderFactory.createHLAinteger32BE(queue0.getId());
-                        parameterHandleValueMap.put(getCustomerChangeQueueHandleCustomerId, cusId.toByteArray());
-                        parameterHandleValueMap.put(getCustomerChangeQueueHandleQueueId, queueId.toByteArray());
-                        rtiamb.sendInteraction(getCustomerChangeQueue, parameterHandleValueMap, generateTag());
-
-                        log("Customer changed queue 0 to queue 1 from position " + randomPositionInQueue + " to position " + queue1.getQueue().size());
+            publishQueueSizes();
+
+            //admit every waiting customer to the queue chosen by the routing policy
+            while (admissionStage.hasPending()) {
+                int serviceType = admissionStage.nextServiceType();
+                int queueId = routingPolicy.selectQueue(queueBank.routableQueues(serviceType));
+                if (queueBank.isFull(queueId)) {
+                    if (overflowPolicy == OverflowPolicy.REJECT) {
+                        log("Queue " + queueId + " is full, customer " + admissionStage.rejectNext() + " turned away");
+                        continue;
+                    }
+                    if (overflowPolicy == OverflowPolicy.HOLD) {
+                        break;
                     }
-                } else if (randomQueueIdNumber == 1 && !queue1.getQueue().isEmpty()) {
-                    int randomPositionInQueue = rand.nextInt(queue1.getQueue().size());
-                    int customerId = queue1.getQueue().get(randomPositionInQueue);
-
-                    if (randomPositionInQueue > queue0.getQueue().size() + 1) {
-                        queue1.getQueue().remove((Integer) customerId);
-                        queue0.getQueue().add(customerId);
-
-                        parameterHandleValueMap = rtiamb.getParameterHandleValueMapFactory().create(2);
-                        ParameterHandle getCustomerChangeQueueHandleCustomerId = rtiamb.getParameterHandle(getCustomerChangeQueue, "customerId");
-                        ParameterHandle getCustomerChangeQueueHandleQueueId = rtiamb.getParameterHandle(getCustomerChangeQueue, "queueId");
-                        HLAinteger32BE cusId = encoderFactory.createHLAinteger32BE(customerId);
-                        HLAinteger32BE queueId = encoderFactory.createHLAinteger32BE(queue1.getId());
-                        parameterHandleValueMap.put(getCustomerChangeQueueHandleCustomerId, cusId.toByteArray());
-                        parameterHandleValueMap.put(getCustomerChangeQueueHandleQueueId, queueId.toByteArray());
-                        rtiamb.sendInteraction(getCustomerChangeQueue, parameterHandleValueMap, generateTag());
-
-                        log("Customer changed queue 1 to queue 0 from position " + randomPositionInQueue + " to position " + queue0.getQueue().size());
+                    // DIVERT: another queue with room for the service type, otherwise turn away as REJECT does
+                    int divertedQueueId = queueBank.findQueueWithSpace(serviceType, queueId);
+                    if (divertedQueueId < 0) {
+                        log("No queue serving type " + serviceType + " has room, customer " + admissionStage.rejectNext() + " turned away");
+                        continue;
                     }
+                    queueId = divertedQueueId;
                 }
-
-                    int min = (int) fedamb.federateTime;
-                    int max = (int) (fedamb.federateTime + 5.0);
-                    changeQueueTime = rand.nextInt(max - min + 1) + min;
+                int customerClass = admissionStage.nextCustomerClass();
+                int cid = admissionStage.admitNext();
+                queueBank.assignCustomerToQueue(queueId, cid, customerClass, serviceType);
+                sendAssignCustomerToQueue(cid, queueId, customerClass);
+                scheduleReconsideration(cid);
+            }
+            admissionStage.completeTick();
+            if (admissionStage.getAdmittedLastTick() > 0) {
+                log("Admitted " + admissionStage.getAdmittedLastTick() + " customers, backlog " + admissionStage.getBacklog()
+                        + ", peak backlog " + admissionStage.getPeakBacklog() + ", rejected " + admissionStage.getRejectedTotal());
+            }
+            updateBackpressure();
+
+            //let every customer whose patience ran out reconsider its queue
+            while (jockeyingScheduler.hasExpired(fedamb.federateTime)) {
+                int customerId = jockeyingScheduler.poll();
+                if (queueBank.queueOf(customerId) >= 0) {
+                    reconsiderQueue(customerId);
+                    scheduleReconsideration(customerId);
                 }
-
-            if (window0IsWaitingForCustomer && !queue0.getQueue().isEmpty()) {
-                queue0.getQueue().remove(0);
-                parameterHandleValueMap = rtiamb.getParameterHandleValueMapFactory().create(1);
-                ParameterHandle getMoveCustomerToWindowHandle = rtiamb.getParameterHandle(getMoveCustomerToWindow, "windowId");
-                HLAinteger32BE windowId = encoderFactory.createHLAinteger32BE(0);
-                parameterHandleValueMap.put(getMoveCustomerToWindowHandle, windowId.toByteArray());
-                rtiamb.sendInteraction(getMoveCustomerToWindow, parameterHandleValueMap, generateTag());
-                window0IsWaitingForCustomer = false;
             }
 
-            if (window1IsWaitingForCustomer && !queue1.getQueue().isEmpty()) {
-                queue1.getQueue().remove(0);
-                parameterHandleValueMap = rtiamb.getParameterHandleValueMapFactory().create(1);
-                ParameterHandle getMoveCustomerToWindowHandle = rtiamb.getParameterHandle(getMoveCustomerToWindow, "windowId");
-                HLAinteger32BE windowId = encoderFactory.createHLAinteger32BE(1);
-                parameterHandleValueMap.put(getMoveCustomerToWindowHandle, windowId.toByteArray());
-                rtiamb.sendInteraction(getMoveCustomerToWindow, parameterHandleValueMap, generateTag());
-                window1IsWaitingForCustomer = false;
+            rerouteStrandedCustomers();
+            int matched = idleWindowMatcher.match(queueBank);
+            for (int i = 0; i < matched; i++) {
+                sendMoveCustomerToWindow(idleWindowMatcher.getMatchedWindowId(i),
+                        idleWindowMatcher.getMatchedCustomerId(i),
+                        idleWindowMatcher.getMatchedCustomerClass(i));
             }
 
             advanceTime(1.0);
@@ -382,6 +384,10 @@ public class QueueFederate {
         getCustomerChangeQueue = rtiamb.getInteractionClassHandle(iCustomerChangeQueue);
         String iCurrentQueueSize = "HLAinteractionRoot.currentQueueSize";
         getCurrentQueueSize = rtiamb.getInteractionClassHandle(iCurrentQueueSize);
+        String iQueueSizes = "HLAinteractionRoot.queueSizes";
+        getQueueSizes = rtiamb.getInteractionClassHandle(iQueueSizes);
+        String iQueueBackpressure = "HLAinteractionRoot.queueBackpressure";
+        getQueueBackpressure = rtiamb.getInteractionClassHandle(iQueueBackpressure);
         String iMoveCustomerToWindow = "HLAinteractionRoot.moveCustomerToWindow";
         getMoveCustomerToWindow = rtiamb.getInteractionClassHandle(iMoveCustomerToWindow);
         String iAssignCustomerToQueue = "HLAinteractionRoot.assignCustomerToQueue";
@@ -389,13 +395,68 @@ public class QueueFederate {
         // do the publication
         rtiamb.publishInteractionClass(getCustomerChangeQueue);
         rtiamb.publishInteractionClass(getCurrentQueueSize);
+        rtiamb.publishInteractionClass(getQueueSizes);
+        rtiamb.publishInteractionClass(getQueueBackpressure);
         rtiamb.publishInteractionClass(getMoveCustomerToWindow);
         rtiamb.publishInteractionClass(getAssignCustomerToQueue);
 
+        currentQueueSizeQueueIdHandle = rtiamb.getParameterHandle(getCurrentQueueSize, "queueId");
+        currentQueueSizeSizeHandle = rtiamb.getParameterHandle(getCurrentQueueSize, "size");
+        assignCustomerToQueueCustomerIdHandle = rtiamb.getParameterHandle(getAssignCustomerToQueue, "customerId");
+        assignCustomerToQueueQueueIdHandle = rtiamb.getParameterHandle(getAssignCustomerToQueue, "queueId");
+        assignCustomerToQueueCustomerClassHandle = rtiamb.getParameterHandle(getAssignCustomerToQueue, "customerClass");
+        customerChangeQueueCustomerIdHandle = rtiamb.getParameterHandle(getCustomerChangeQueue, "customerId");
+        customerChangeQueueQueueIdHandle = rtiamb.getParameterHandle(getCustomerChangeQueue, "queueId");
+        moveCustomerToWindowWindowIdHandle = rtiamb.getParameterHandle(getMoveCustomerToWindow, "windowId");
+        moveCustomerToWindowCustomerIdHandle = rtiamb.getParameterHandle(getMoveCustomerToWindow, "customerId");
+        moveCustomerToWindowCustomerClassHandle = rtiamb.getParameterHandle(getMoveCustomerToWindow, "customerClass");
+        queueSizesSizesHandle = rtiamb.getParameterHandle(getQueueSizes, "sizes");
+        queueBackpressureActiveHandle = rtiamb.getParameterHandle(getQueueBackpressure, "active");
+        queueBackpressureBacklogHandle = rtiamb.getParameterHandle(getQueueBackpressure, "backlog");
+
+        ParameterHandleValueMapFactory mapFactory = rtiamb.getParameterHandleValueMapFactory();
+        currentQueueSizeParameters = mapFactory.create(2);
+        assignCustomerToQueueParameters = mapFactory.create(3);
+        customerChangeQueueParameters = mapFactory.create(2);
+        moveCustomerToWindowParameters = mapFactory.create(3);
+        queueSizesParameters = mapFactory.create(1);
+        queueBackpressureParameters = mapFactory.create(2);
+        firstValueEncoder = encoderFactory.createHLAinteger32BE();
+        secondValueEncoder = encoderFactory.createHLAinteger32BE();
+        thirdValueEncoder = encoderFactory.createHLAinteger32BE();
+
         customerIdHandle = rtiamb.getParameterHandle(getAddCustomer, "customerId");
+        customerClassHandle = rtiamb.getParameterHandle(getAddCustomer, "customerClass");
+        serviceTypeHandle = rtiamb.getParameterHandle(getAddCustomer, "serviceType");
         windowIdHandle = rtiamb.getParameterHandle(getFreeWindow, "windowId");
+        serverSlotHandle = rtiamb.getParameterHandle(getFreeWindow, "serverSlot");
+        skillsHandle = rtiamb.getParameterHandle(getFreeWindow, "skills");
         rtiamb.subscribeInteractionClass(getFreeWindow);
+
+        getWindowClosed = rtiamb.getInteractionClassHandle("HLAinteractionRoot.windowClosed");
+        windowClosedWindowIdHandle = rtiamb.getParameterHandle(getWindowClosed, "windowId");
+        rtiamb.subscribeInteractionClass(getWindowClosed);
         rtiamb.subscribeInteractionClass(getAddCustomer);
+
+        getAddCustomers = rtiamb.getInteractionClassHandle("HLAinteractionRoot.addCustomers");
+        customerIdsHandle = rtiamb.getParameterHandle(getAddCustomers, "customerIds");
+        customerClassesHandle = rtiamb.getParameterHandle(getAddCustomers, "customerClasses");
+        serviceTypesHandle = rtiamb.getParameterHandle(getAddCustomers, "serviceTypes");
+        rtiamb.subscribeInteractionClass(getAddCustomers);
+
+        getRequestCustomerIds = rtiamb.getInteractionClassHandle("HLAinteractionRoot.requestCustomerIds");
+        requestCustomerIdsProducerHandle = rtiamb.getParameterHandle(getRequestCustomerIds, "producer");
+        requestCustomerIdsRequestIdHandle = rtiamb.getParameterHandle(getRequestCustomerIds, "requestId");
+        requestCustomerIdsBlockSizeHandle = rtiamb.getParameterHandle(getRequestCustomerIds, "blockSize");
+        rtiamb.subscribeInteractionClass(getRequestCustomerIds);
+
+        customerIdsLeased = rtiamb.getInteractionClassHandle("HLAinteractionRoot.customerIdsLeased");
+        customerIdsLeasedProducerHandle = rtiamb.getParameterHandle(customerIdsLeased, "producer");
+        customerIdsLeasedRequestIdHandle = rtiamb.getParameterHandle(customerIdsLeased, "requestId");
+        customerIdsLeasedFirstIdHandle = rtiamb.getParameterHandle(customerIdsLeased, "firstId");
+        customerIdsLeasedBlockSizeHandle = rtiamb.getParameterHandle(customerIdsLeased, "blockSize");
+        rtiamb.publishInteractionClass(customerIdsLeased);
+        customerIdsLeasedParameters = mapFactory.create(4);
     }
 
     /**
@@ -416,6 +477,214 @@ public class QueueFederate {
         }
     }
 
+    /**
+     * Compares the customer's position with the length of a randomly chosen other queue and
+     * moves it to the back of that queue if it would be served sooner there.
+     */
+    private void reconsiderQueue(int customerId) throws RTIexception {
+        int queueCount = queueBank.getQueueCount();
+        if (queueCount < 2) {
+            return;
+        }
+        int fromQueueId = queueBank.queueOf(customerId);
+        int toQueueId = rand.nextInt(queueCount - 1);
+        if (toQueueId >= fromQueueId) {
+            toQueueId++;
+        }
+        int positionInQueue = queueBank.getQueue(fromQueueId).positionOf(customerId);
+        if (positionInQueue > queueBank.size(toQueueId) + 1 && queueBank.moveCustomer(customerId, fromQueueId, toQueueId)) {
+            sendCustomerChangeQueue(customerId, fromQueueId);
+
+            log("Customer changed queue " + fromQueueId + " to queue " + toQueueId + " from position " + positionInQueue + " to position " + queueBank.size(toQueueId));
+        }
+    }
+
+    /**
+     * Tells the producers to slow down once the door backlog reaches the high watermark and
+     * to resume once it has drained to the low watermark.
+     */
+    private void updateBackpressure() throws RTIexception {
+        int backlog = admissionStage.getBacklog();
+        if (!backpressureActive && backlog >= backpressureHighWatermark) {
+            backpressureActive = true;
+        } else if (backpressureActive && backlog <= backpressureLowWatermark) {
+            backpressureActive = false;
+        } else {
+            return;
+        }
+        firstValueEncoder.setValue(backpressureActive ? 1 : 0);
+        secondValueEncoder.setValue(backlog);
+        queueBackpressureParameters.put(queueBackpressureActiveHandle, firstValueEncoder.toByteArray());
+        queueBackpressureParameters.put(queueBackpressureBacklogHandle, secondValueEncoder.toByteArray());
+        rtiamb.sendInteraction(getQueueBackpressure, queueBackpressureParameters, generateTag());
+        log("Backpressure " + (backpressureActive ? "on" : "off") + " at backlog " + backlog);
+    }
+
+    private void scheduleReconsideration(int customerId) {
+        jockeyingScheduler.schedule(customerId, fedamb.federateTime + 1 + rand.nextInt(maxReconsiderInterval));
+    }
+
+    private void publishQueueSizes() throws RTIexception {
+        if (sizePublishMode == QueueSizePublishMode.ALL) {
+            for (int queueId = 0; queueId < queueBank.getQueueCount(); queueId++) {
+                sendCurrentQueueSize(queueId, queueBank.size(queueId));
+            }
+            return;
+        }
+        int changed = queueBank.drainChangedQueues(changedQueueIds);
+        if (sizePublishMode == QueueSizePublishMode.BULK) {
+            if (changed > 0) {
+                sendQueueSizes(changed);
+            }
+            return;
+        }
+        for (int i = 0; i < changed; i++) {
+            sendCurrentQueueSize(changedQueueIds[i], queueBank.size(changedQueueIds[i]));
+        }
+    }
+
+    private void sendQueueSizes(int count) throws RTIexception {
+        HLAvariableArray<HLAfixedRecord> sizes = encoderFactory.createHLAvariableArray(this::createQueueSizeRecord);
+        for (int i = 0; i < count; i++) {
+            if (i == queueSizeRecords.size()) {
+                queueSizeRecords.add(createQueueSizeRecord(i));
+            }
+            HLAfixedRecord record = queueSizeRecords.get(i);
+            ((HLAinteger32BE) record.get(0)).setValue(changedQueueIds[i]);
+            ((HLAinteger32BE) record.get(1)).setValue(queueBank.size(changedQueueIds[i]));
+            sizes.addElement(record);
+        }
+        queueSizesParameters.put(queueSizesSizesHandle, sizes.toByteArray());
+        rtiamb.sendInteraction(getQueueSizes, queueSizesParameters, generateTag());
+    }
+
+    private HLAfixedRecord createQueueSizeRecord(int index) {
+        HLAfixedRecord record = encoderFactory.createHLAfixedRecord();
+        record.add(encoderFactory.createHLAinteger32BE());
+        record.add(encoderFactory.createHLAinteger32BE());
+        return record;
+    }
+
+    private void sendCurrentQueueSize(int queueId, int size) throws RTIexception {
+        firstValueEncoder.setValue(queueId);
+        secondValueEncoder.setValue(size);
+        currentQueueSizeParameters.put(currentQueueSizeQueueIdHandle, firstValueEncoder.toByteArray());
+        currentQueueSizeParameters.put(currentQueueSizeSizeHandle, secondValueEncoder.toByteArray());
+        rtiamb.sendInteraction(getCurrentQueueSize, currentQueueSizeParameters, generateTag());
+    }
+
+    private void sendAssignCustomerToQueue(int customerId, int queueId, int customerClass) throws RTIexception {
+        firstValueEncoder.setValue(customerId);
+        secondValueEncoder.setValue(queueId);
+        thirdValueEncoder.setValue(customerClass);
+        assignCustomerToQueueParameters.put(assignCustomerToQueueCustomerIdHandle, firstValueEncoder.toByteArray());
+        assignCustomerToQueueParameters.put(assignCustomerToQueueQueueIdHandle, secondValueEncoder.toByteArray());
+        assignCustomerToQueueParameters.put(assignCustomerToQueueCustomerClassHandle, thirdValueEncoder.toByteArray());
+        rtiamb.sendInteraction(getAssignCustomerToQueue, assignCustomerToQueueParameters, generateTag());
+    }
+
+    private void sendCustomerChangeQueue(int customerId, int queueId) throws RTIexception {
+        firstValueEncoder.setValue(customerId);
+        secondValueEncoder.setValue(queueId);
+        customerChangeQueueParameters.put(customerChangeQueueCustomerIdHandle, firstValueEncoder.toByteArray());
+        customerChangeQueueParameters.put(customerChangeQueueQueueIdHandle, secondValueEncoder.toByteArray());
+        rtiamb.sendInteraction(getCustomerChangeQueue, customerChangeQueueParameters, generateTag());
+    }
+
+    /**
+     * Leases a block of customer ids to the producer and sends the answer at once. It is sent
+     * from the callback rather than after the next grant, since the producer may be waiting
+     * for it without advancing, which could otherwise hold back that very grant.
+     */
+    protected void leaseCustomerIds(byte[] producer, int requestId, int blockSize) throws RTIexception {
+        int firstId = customerIdLeases.lease(producer, requestId, blockSize);
+        int size = customerIdLeases.getLeasedSize(producer);
+        HLAinteger32BE value = encoderFactory.createHLAinteger32BE();
+        customerIdsLeasedParameters.put(customerIdsLeasedProducerHandle, encoderFactory.createHLAopaqueData(producer).toByteArray());
+        value.setValue(requestId);
+        customerIdsLeasedParameters.put(customerIdsLeasedRequestIdHandle, value.toByteArray());
+        value.setValue(firstId);
+        customerIdsLeasedParameters.put(customerIdsLeasedFirstIdHandle, value.toByteArray());
+        value.setValue(size);
+        customerIdsLeasedParameters.put(customerIdsLeasedBlockSizeHandle, value.toByteArray());
+        rtiamb.sendInteraction(customerIdsLeased, customerIdsLeasedParameters, generateTag());
+        if (firstId < 0) {
+            log("Customer id space used up, request " + requestId + " refused");
+        } else {
+            log("Leased customer ids " + firstId + " to " + (firstId + size - 1) + " for request " + requestId
+                    + ", " + customerIdLeases.getLeasedCount() + " ids leased to " + customerIdLeases.getProducerCount() + " producers");
+        }
+    }
+
+    private void sendMoveCustomerToWindow(int windowId, int customerId, int customerClass) throws RTIexception {
+        firstValueEncoder.setValue(windowId);
+        secondValueEncoder.setValue(customerId);
+        thirdValueEncoder.setValue(customerClass);
+        moveCustomerToWindowParameters.put(moveCustomerToWindowWindowIdHandle, firstValueEncoder.toByteArray());
+        moveCustomerToWindowParameters.put(moveCustomerToWindowCustomerIdHandle, secondValueEncoder.toByteArray());
+        moveCustomerToWindowParameters.put(moveCustomerToWindowCustomerClassHandle, thirdValueEncoder.toByteArray());
+        rtiamb.sendInteraction(getMoveCustomerToWindow, moveCustomerToWindowParameters, generateTag());
+    }
+
+    /**
+     * @param skills service types the window handles, bit {@code t} standing for type {@code t}
+     */
+    protected void markWindowWaitingForCustomer(int windowId, int skills) {
+        if (queueBank.openWindow(windowId, skills)) {
+            // a type that had no open window has one again: whoever waited elsewhere for it may move
+            strandedQueues.set(0, queueBank.getQueueCount());
+        }
+        idleWindowMatcher.windowIdle(windowId, Queue.lanesForSkills(skills, queueBank.getServiceTypeCount()));
+    }
+
+    /**
+     * Stops handing customers to a window that has closed and stops routing to its queue the
+     * types no other open window there handles. The customers of those types already waiting
+     * are moved by the main loop. The window announces its servers again with freeWindow when
+     * it reopens.
+     */
+    protected void markWindowClosed(int windowId) {
+        idleWindowMatcher.windowBusy(windowId);
+        if (queueBank.closeWindow(windowId)) {
+            strandedQueues.set(queueBank.queueForWindow(windowId));
+        }
+    }
+
+    /**
+     * Moves every customer of the marked queues whose type that queue no longer serves to a
+     * queue with room that does, chosen by the routing policy, announcing each move like a
+     * jockeying one. Customers with nowhere to go stay where they are until jockeying or a
+     * later reroute moves them.
+     */
+    private void rerouteStrandedCustomers() throws RTIexception {
+        for (int queueId = strandedQueues.nextSetBit(0); queueId >= 0; queueId = strandedQueues.nextSetBit(queueId + 1)) {
+            Queue queue = queueBank.getQueue(queueId);
+            int moved = 0;
+            // from the back, so a removal does not shift the positions still to visit
+            for (int position = queue.size() - 1; position >= 0; position--) {
+                int customerId = queue.getCustomer(position);
+                int serviceType = queue.serviceTypeOf(customerId);
+                if (!queueBank.isStranded(queueId, serviceType)) {
+                    continue;
+                }
+                // the routing policy spreads them over the queues still serving the type
+                BitSet candidates = queueBank.routableQueuesWithSpace(serviceType);
+                if (candidates.isEmpty()) {
+                    continue;
+                }
+                int toQueueId = routingPolicy.selectQueue(candidates);
+                if (toQueueId != queueId && queueBank.moveCustomer(customerId, queueId, toQueueId)) {
+                    sendCustomerChangeQueue(customerId, queueId);
+                    moved++;
+                }
+            }
+            if (moved > 0) {
+                log("Moved " + moved + " customers out of queue " + queueId + ", no open window there serves them");
+            }
+        }
+        strandedQueues.clear();
+    }
+
     private short getTimeAsShort() {
         return (short) fedamb.federateTime;
     }
@@ -431,17 +700,17 @@ public class QueueFederate {
         }
 
         try {
-            new QueueFederate().runFederate(federateName);
+            new QueueFederate(QueueSettings.fromSystemProperties()).runFederate(federateName);
         } catch (Exception rtie) {
             rtie.printStackTrace();
         }
     }
 
-    public Queue getQueue0() {
-        return queue0;
+    public QueueBank getQueueBank() {
+        return queueBank;
     }
 
-    public Queue getQueue1() {
-        return queue1;
+    public AdmissionStage getAdmissionStage() {
+        return admissionStage;
     }
 }
@@ -4,7 +4,9 @@ import Producer.ProducerFederate;
 import hla.rti1516e.*;
 import hla.rti1516e.encoding.DecoderException;
 import hla.rti1516e.encoding.HLAinteger32BE;
+import hla.rti1516e.encoding.HLAopaqueData;
 import hla.rti1516e.exceptions.FederateInternalError;
+import hla.rti1516e.exceptions.RTIexception;
 import hla.rti1516e.time.HLAfloat64Time;
 import org.portico.impl.hla1516e.types.encoding.HLA1516eInteger32BE;
 
@@ -222,51 +224,127 @@ public class QueueFederateAmbassador extends NullFederateAmbassador {
         if (interactionClass.equals(federate.getAddCustomer)) {
             interactionName = "(Customer)";
 
+            int customerIdValue = 0;
+            int customerClassValue = CustomerClass.RETAIL.ordinal();
+            int serviceTypeValue = 0;
             for (ParameterHandle parameter : theParameters.keySet()) {
-                byte[] bytes = theParameters.get(federate.customerIdHandle);
-                HLAinteger32BE customerId = new HLA1516eInteger32BE();
+                byte[] bytes = theParameters.get(parameter);
+                HLAinteger32BE value = new HLA1516eInteger32BE();
                 try {
-                    customerId.decode(bytes);
+                    value.decode(bytes);
                 } catch (DecoderException e) {
                     e.printStackTrace();
                 }
-                int customerIdValue = customerId.getValue();
-                String paramValue = String.valueOf(customerIdValue);
-
-                federate.customersWaitingToAddToQueue.add(customerIdValue);
+                if (parameter.equals(federate.customerIdHandle)) {
+                    customerIdValue = value.getValue();
+                } else if (parameter.equals(federate.customerClassHandle)) {
+                    customerClassValue = value.getValue();
+                } else if (parameter.equals(federate.serviceTypeHandle)) {
+                    serviceTypeValue = value.getValue();
+                }
+                String paramValue = String.valueOf(value.getValue());
 
                 attributesMapAsString.append(String.format("paramHandle=%s, paramValueInBytes=%s, paramValue=%s \n", parameter, theParameters.get(parameter).length, paramValue));
             }
+            if (!federate.admissionStage.isValid(customerClassValue, serviceTypeValue)) {
+                federate.admissionStage.offer(customerIdValue, customerClassValue, serviceTypeValue);
+                log("Customer " + customerIdValue + " rejected, unknown class " + customerClassValue
+                        + " or service type " + serviceTypeValue);
+            } else if (!federate.admissionStage.offer(customerIdValue, customerClassValue, serviceTypeValue)) {
+                log("Door is full, customer " + customerIdValue + " turned away");
+            }
 
             log(String.format("handle=%s, interactionName=%s, tag=%s, time=%s, attributesMapSize=%s, attributesMap=%s",
                     interactionClass, interactionName, new String(tag), timeAsString, theParameters.size(), attributesMapAsString));
         }
 
+        if (interactionClass.equals(federate.getAddCustomers)) {
+            byte[] customerIds = theParameters.get(federate.customerIdsHandle);
+            byte[] customerClasses = theParameters.get(federate.customerClassesHandle);
+            byte[] serviceTypes = theParameters.get(federate.serviceTypesHandle);
+            int count;
+            try {
+                count = Integer32ArrayCodec.count(customerIds);
+                if (Integer32ArrayCodec.count(customerClasses) != count || Integer32ArrayCodec.count(serviceTypes) != count) {
+                    throw new DecoderException("addCustomers arrays differ in length");
+                }
+            } catch (DecoderException e) {
+                e.printStackTrace();
+                return;
+            }
+            int turnedAway = 0;
+            int invalid = 0;
+            for (int i = 0; i < count; i++) {
+                int customerId = Integer32ArrayCodec.get(customerIds, i);
+                int customerClass = Integer32ArrayCodec.get(customerClasses, i);
+                int serviceType = Integer32ArrayCodec.get(serviceTypes, i);
+                if (!federate.admissionStage.isValid(customerClass, serviceType)) {
+                    invalid++;
+                    log("Customer " + customerId + " rejected, unknown class " + customerClass
+                            + " or service type " + serviceType);
+                }
+                if (!federate.admissionStage.offer(customerId, customerClass, serviceType)) {
+                    turnedAway++;
+                }
+            }
+            log(String.format("handle=%s, interactionName=(Customers), tag=%s, time=%s, customers=%d, turnedAway=%d, invalid=%d",
+                    interactionClass, new String(tag), timeAsString, count, turnedAway, invalid));
+        }
+
+        if (interactionClass.equals(federate.getRequestCustomerIds)) {
+            HLAopaqueData producer = federate.encoderFactory.createHLAopaqueData();
+            HLAinteger32BE requestId = new HLA1516eInteger32BE();
+            HLAinteger32BE blockSize = new HLA1516eInteger32BE();
+            try {
+                producer.decode(theParameters.get(federate.requestCustomerIdsProducerHandle));
+                requestId.decode(theParameters.get(federate.requestCustomerIdsRequestIdHandle));
+                blockSize.decode(theParameters.get(federate.requestCustomerIdsBlockSizeHandle));
+                federate.leaseCustomerIds(producer.getValue(), requestId.getValue(), blockSize.getValue());
+            } catch (DecoderException | RTIexception e) {
+                e.printStackTrace();
+            }
+        }
+
+        if (interactionClass.equals(federate.getWindowClosed)) {
+            HLAinteger32BE windowId = new HLA1516eInteger32BE();
+            try {
+                windowId.decode(theParameters.get(federate.windowClosedWindowIdHandle));
+            } catch (DecoderException e) {
+                e.printStackTrace();
+                return;
+            }
+            federate.markWindowClosed(windowId.getValue());
+            log("Window " + windowId.getValue() + " closed");
+        }
+
         if (interactionClass.equals(federate.getFreeWindow)) {
             interactionName = "(Window)";
 
-            for (ParameterHandle parameter : theParameters.keySet()) {
-                byte[] bytes = theParameters.get(federate.windowIdHandle);
-                HLAinteger32BE windowId = new HLA1516eInteger32BE();
-                try {
-                    windowId.decode(bytes);
-                } catch (DecoderException e) {
-                    e.printStackTrace();
+            HLAinteger32BE windowId = new HLA1516eInteger32BE();
+            HLAinteger32BE serverSlot = new HLA1516eInteger32BE();
+            // a window that does not announce skills handles every service type
+            HLAinteger32BE skills = new HLA1516eInteger32BE(-1);
+            try {
+                windowId.decode(theParameters.get(federate.windowIdHandle));
+                byte[] serverSlotBytes = theParameters.get(federate.serverSlotHandle);
+                if (serverSlotBytes != null) {
+                    serverSlot.decode(serverSlotBytes);
                 }
-                int windowIdValue = windowId.getValue();
-                String paramValue = String.valueOf(windowIdValue);
-
-                if (windowIdValue == 0) {
-                    federate.window0IsWaitingForCustomer = true;
-                } else if (windowIdValue == 1) {
-                    federate.window1IsWaitingForCustomer = true;
+                byte[] skillsBytes = theParameters.get(federate.skillsHandle);
+                if (skillsBytes != null) {
+                    skills.decode(skillsBytes);
                 }
-
-                attributesMapAsString.append(String.format("paramHandle=%s, paramValueInBytes=%s, paramValue=%s \n", parameter, theParameters.get(parameter).length, paramValue));
+            } catch (DecoderException e) {
+                e.printStackTrace();
+                return;
             }
 
-            log(String.format("handle=%s, interactionName=%s, tag=%s, time=%s, attributesMapSize=%s, attributesMap=%s",
-                    interactionClass, interactionName, new String(tag), timeAsString, theParameters.size(), attributesMapAsString));
+            // one freeWindow per server that became free
+            federate.markWindowWaitingForCustomer(windowId.getValue(), skills.getValue());
+
+            log(String.format("handle=%s, interactionName=%s, tag=%s, time=%s, windowId=%d, serverSlot=%d, skills=%s",
+                    interactionClass, interactionName, new String(tag), timeAsString, windowId.getValue(), serverSlot.getValue(),
+                    Integer.toBinaryString(skills.getValue())));
         }
     }
 
@@ -0,0 +1,50 @@
+package queue_manager;
+
+/**
+ * Startup configuration of {@link QueueFederate}, read from {@code queue.*} system properties.
+ */
+public class QueueSettings {
+    final int queueCount;
+    final String routingPolicy;
+    final QueueSizePublishMode sizePublishMode;
+    final int maxReconsiderInterval;
+    final DequeueDiscipline discipline;
+    final int[] classWeights;
+    final int queueCapacity;
+    final OverflowPolicy overflowPolicy;
+    final int doorCapacity;
+    final int backpressureHighWatermark;
+    final int backpressureLowWatermark;
+    final int serviceTypeCount;
+
+    private QueueSettings() {
+        queueCount = Integer.getInteger("queue.count", 2);
+        routingPolicy = System.getProperty("queue.routing", "random");
+        sizePublishMode = QueueSizePublishMode.forName(System.getProperty("queue.sizePublishing", "all"));
+        maxReconsiderInterval = Integer.getInteger("queue.reconsiderInterval", 5);
+        discipline = DequeueDiscipline.forName(System.getProperty("queue.discipline", "strict"));
+        classWeights = parseClassWeights(System.getProperty("queue.classWeights", "6,3,1"));
+        queueCapacity = Integer.getInteger("queue.capacity", 10_000);
+        overflowPolicy = OverflowPolicy.forName(System.getProperty("queue.overflow", "hold"));
+        doorCapacity = Integer.getInteger("queue.doorCapacity", 100_000);
+        backpressureHighWatermark = Integer.getInteger("queue.backpressureHigh", doorCapacity / 2);
+        backpressureLowWatermark = Integer.getInteger("queue.backpressureLow", backpressureHighWatermark / 2);
+        serviceTypeCount = Integer.getInteger("queue.serviceTypes", 1);
+    }
+
+    public static QueueSettings fromSystemProperties() {
+        return new QueueSettings();
+    }
+
+    private static int[] parseClassWeights(String weights) {
+        String[] parts = weights.split(",");
+        if (parts.length != CustomerClass.count()) {
+            throw new IllegalArgumentException("Expected " + CustomerClass.count() + " class weights, got: " + weights);
+        }
+        int[] classWeights = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            classWeights[i] = Integer.parseInt(parts[i].trim());
+        }
+        return classWeights;
+    }
+}
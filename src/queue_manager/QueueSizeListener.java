@@ -0,0 +1,8 @@
+package queue_manager;
+
+/**
+ * Notified by {@link QueueBank} after every change of a queue's length.
+ */
+public interface QueueSizeListener {
+    void queueSizeChanged(int queueId, int size);
+}
@@ -0,0 +1,17 @@
+package queue_manager;
+
+/**
+ * How {@link QueueFederate} reports queue lengths each time step.
+ */
+public enum QueueSizePublishMode {
+    /** One currentQueueSize interaction per queue, every time step. */
+    ALL,
+    /** One currentQueueSize interaction per queue whose size changed since the last step. */
+    CHANGED,
+    /** A single queueSizes interaction carrying every changed (queueId, size) pair. */
+    BULK;
+
+    public static QueueSizePublishMode forName(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+}
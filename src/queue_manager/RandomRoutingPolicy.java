@@ -0,0 +1,23 @@
+package queue_manager;
+
+import java.util.BitSet;
+import java.util.Random;
+
+public class RandomRoutingPolicy implements RoutingPolicy {
+    private final int queueCount;
+    private final Random random;
+
+    public RandomRoutingPolicy(int queueCount, Random random) {
+        this.queueCount = queueCount;
+        this.random = random;
+    }
+
+    @Override
+    public int selectQueue(BitSet candidates) {
+        int candidateCount = candidates.cardinality();
+        if (candidateCount == queueCount) {
+            return random.nextInt(queueCount);
+        }
+        return RoutingPolicy.nthCandidate(candidates, random.nextInt(candidateCount));
+    }
+}
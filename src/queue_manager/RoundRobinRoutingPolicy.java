@@ -0,0 +1,22 @@
+package queue_manager;
+
+import java.util.BitSet;
+
+public class RoundRobinRoutingPolicy implements RoutingPolicy {
+    private final int queueCount;
+    private int next;
+
+    public RoundRobinRoutingPolicy(int queueCount) {
+        this.queueCount = queueCount;
+    }
+
+    @Override
+    public int selectQueue(BitSet candidates) {
+        int queueId = candidates.nextSetBit(next);
+        if (queueId < 0) {
+            queueId = candidates.nextSetBit(0);
+        }
+        next = queueId + 1 == queueCount ? 0 : queueId + 1;
+        return queueId;
+    }
+}
@@ -0,0 +1,50 @@
+package queue_manager;
+
+import java.util.BitSet;
+import java.util.Random;
+
+/**
+ * Chooses the queue a newly admitted customer joins. Policies that track queue lengths are
+ * kept up to date through {@link #queueSizeChanged(int, int)}.
+ */
+public interface RoutingPolicy extends QueueSizeListener {
+    /**
+     * Chooses among {@code candidates}, the queues that serve the customer's service type,
+     * see {@link QueueBank#routableQueues(int)}. The set is never empty.
+     */
+    int selectQueue(BitSet candidates);
+
+    @Override
+    default void queueSizeChanged(int queueId, int size) {
+    }
+
+    /**
+     * Returns the {@code n}-th queue id of {@code candidates}, counting from 0.
+     */
+    static int nthCandidate(BitSet candidates, int n) {
+        int queueId = candidates.nextSetBit(0);
+        for (int i = 0; i < n; i++) {
+            queueId = candidates.nextSetBit(queueId + 1);
+        }
+        return queueId;
+    }
+
+    /**
+     * Creates the policy registered under the given name: {@code random}, {@code round-robin},
+     * {@code shortest} (join-shortest-queue) or {@code power-of-two}.
+     */
+    static RoutingPolicy forName(String name, QueueBank queueBank, Random random) {
+        switch (name) {
+            case "random":
+                return new RandomRoutingPolicy(queueBank.getQueueCount(), random);
+            case "round-robin":
+                return new RoundRobinRoutingPolicy(queueBank.getQueueCount());
+            case "shortest":
+                return new JoinShortestQueueRoutingPolicy(queueBank);
+            case "power-of-two":
+                return new PowerOfTwoChoicesRoutingPolicy(queueBank, random);
+            default:
+                throw new IllegalArgumentException("Unknown routing policy: " + name);
+        }
+    }
+}
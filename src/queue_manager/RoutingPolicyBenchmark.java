@@ -0,0 +1,73 @@
+package queue_manager;
+
+import java.util.BitSet;
+import java.util.Random;
+
+/**
+ * Measures the cost of one routing decision, including the queue length bookkeeping it
+ * triggers, for every routing policy. Each iteration routes one customer and serves one
+ * customer from a random queue, so queue lengths keep changing. A full scan for the
+ * shortest queue is measured alongside as the baseline join-shortest-queue replaces.
+ *
+ * Usage: {@code RoutingPolicyBenchmark [queueCount] [decisions]}, defaults 1000 and 2000000.
+ */
+public class RoutingPolicyBenchmark {
+    private static final String[] POLICIES = {"random", "round-robin", "shortest", "power-of-two"};
+    private static final int INITIAL_CUSTOMERS_PER_QUEUE = 20;
+    private static final int RETAIL = CustomerClass.RETAIL.ordinal();
+
+    public static void main(String[] args) {
+        int queueCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int decisions = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+
+        System.out.printf("K=%d, %d decisions per run%n", queueCount, decisions);
+        for (int round = 0; round < 3; round++) {
+            boolean warmup = round < 2;
+            for (String policy : POLICIES) {
+                report(policy, run(policy, queueCount, decisions), decisions, warmup);
+            }
+            report("full-scan shortest", run(null, queueCount, decisions), decisions, warmup);
+        }
+    }
+
+    private static long run(String policyName, int queueCount, int decisions) {
+        Random random = new Random(42);
+        QueueBank queueBank = new QueueBank(queueCount);
+        int customerId = 1;
+        for (int queueId = 0; queueId < queueCount; queueId++) {
+            for (int i = 0; i < INITIAL_CUSTOMERS_PER_QUEUE; i++) {
+                queueBank.assignCustomerToQueue(queueId, customerId++, RETAIL, 0);
+            }
+        }
+        RoutingPolicy policy = policyName != null ? RoutingPolicy.forName(policyName, queueBank, random) : null;
+        queueBank.setSizeListener(policy);
+        BitSet candidates = queueBank.routableQueues(0);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < decisions; i++) {
+            int queueId = policy != null ? policy.selectQueue(candidates) : scanForShortest(queueBank);
+            queueBank.assignCustomerToQueue(queueId, customerId++, RETAIL, 0);
+            int servedQueueId = random.nextInt(queueCount);
+            if (!queueBank.isEmpty(servedQueueId)) {
+                queueBank.pollCustomer(servedQueueId);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static int scanForShortest(QueueBank queueBank) {
+        int shortest = 0;
+        for (int queueId = 1; queueId < queueBank.getQueueCount(); queueId++) {
+            if (queueBank.size(queueId) < queueBank.size(shortest)) {
+                shortest = queueId;
+            }
+        }
+        return shortest;
+    }
+
+    private static void report(String policy, long nanos, int decisions, boolean warmup) {
+        if (!warmup) {
+            System.out.printf("%-20s %8.1f ns/decision%n", policy, (double) nanos / decisions);
+        }
+    }
+}
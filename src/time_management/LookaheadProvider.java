@@ -0,0 +1,101 @@
+package time_management;
+
+/**
+ * Derives a federate's lookahead from its own schedule. Before each time advance request the
+ * federate reports the requested time and the earliest time at which it can next send, and the
+ * lookahead becomes the gap between the two, kept within {@code [minimum, maximum]}. A larger
+ * lookahead lets the RTI grant the other federates further advances while this one waits.
+ *
+ * The lookahead moves in powers of two times the minimum, rounded down, so a horizon that
+ * shrinks by one step per grant changes it a logarithmic number of times, not at every grant.
+ * It is lowered as soon as the horizon falls below it, so it never promises more than the
+ * schedule allows.
+ */
+public class LookaheadProvider {
+    private final double minimum;
+    private final double maximum;
+    private double lookahead;
+    private long changes;
+
+    /**
+     * Reads {@code <prefix>.lookahead.min}, by default the given minimum, and
+     * {@code <prefix>.lookahead.max}, by default 64 times the minimum. Setting the maximum to
+     * the minimum keeps the lookahead fixed.
+     */
+    public static LookaheadProvider fromSystemProperties(String prefix, double defaultMinimum) {
+        double minimum = Double.parseDouble(System.getProperty(prefix + ".lookahead.min", String.valueOf(defaultMinimum)));
+        double maximum = Double.parseDouble(System.getProperty(prefix + ".lookahead.max", String.valueOf(64 * minimum)));
+        return new LookaheadProvider(minimum, maximum);
+    }
+
+    public LookaheadProvider(double minimum, double maximum) {
+        if (!(minimum > 0) || maximum < minimum) {
+            throw new IllegalArgumentException("Bad lookahead range [" + minimum + ", " + maximum + "]");
+        }
+        this.minimum = minimum;
+        this.maximum = maximum;
+        this.lookahead = minimum;
+    }
+
+    public double getLookahead() {
+        return lookahead;
+    }
+
+    public double getMinimum() {
+        return minimum;
+    }
+
+    public double getMaximum() {
+        return maximum;
+    }
+
+    public boolean isFixed() {
+        return maximum == minimum;
+    }
+
+    /**
+     * Number of times {@link #update(double, double)} changed the lookahead.
+     */
+    public long getChanges() {
+        return changes;
+    }
+
+    /**
+     * Recomputes the lookahead for a request to {@code requestedTime} when nothing will be sent
+     * before {@code earliestSendTime}, which may be infinite. Returns whether it changed, in
+     * which case the caller passes {@link #getLookahead()} to the RTI.
+     */
+    public boolean update(double requestedTime, double earliestSendTime) {
+        return setLookahead(targetFor(earliestSendTime - requestedTime));
+    }
+
+    /**
+     * Recomputes the lookahead for a federate that sends each event one lookahead ahead of its
+     * time: seen from {@code currentTime}, the next event is at {@code nextEventTime}, which may
+     * be infinite. The federate then requests {@code nextEventTime - getLookahead()} and sends
+     * the event at that grant. Returns whether the lookahead changed.
+     */
+    public boolean updateForSendAhead(double currentTime, double nextEventTime) {
+        return setLookahead(targetFor(nextEventTime - currentTime));
+    }
+
+    private double targetFor(double horizon) {
+        if (!(horizon >= 2 * minimum)) {
+            return minimum;
+        }
+        if (horizon >= maximum) {
+            return maximum;
+        }
+        // the largest minimum * 2^k not above the horizon
+        return minimum * Long.highestOneBit((long) (horizon / minimum));
+    }
+
+    private boolean setLookahead(double target) {
+        if (target == lookahead) {
+            return false;
+        }
+        lookahead = target;
+        changes++;
+        return true;
+    }
+}
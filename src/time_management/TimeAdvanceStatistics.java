@@ -0,0 +1,73 @@
+package time_management;
+
+/**
+ * Counts how long a federate waits for its time advance grants. A wait that needs more than
+ * one round of callback evocation is a stall: the RTI could not grant at once because some
+ * other federate held the federation back. Comparing the stall count of runs with a fixed and
+ * with a derived lookahead measures what the larger lookahead buys.
+ */
+public class TimeAdvanceStatistics {
+    private long advances;
+    private long stalls;
+    private long evokeRounds;
+    private long waitNanos;
+    private long maxWaitNanos;
+    private long requestStart;
+    private int requestRounds;
+
+    /**
+     * Call right before the time advance request.
+     */
+    public void requested() {
+        requestStart = System.nanoTime();
+        requestRounds = 0;
+    }
+
+    /**
+     * Call after each round of callback evocation while waiting for the grant.
+     */
+    public void evoked() {
+        requestRounds++;
+    }
+
+    /**
+     * Call once the grant has arrived.
+     */
+    public void granted() {
+        long wait = System.nanoTime() - requestStart;
+        advances++;
+        evokeRounds += requestRounds;
+        if (requestRounds > 1) {
+            stalls++;
+        }
+        waitNanos += wait;
+        maxWaitNanos = Math.max(maxWaitNanos, wait);
+    }
+
+    public long getAdvances() {
+        return advances;
+    }
+
+    public long getStalls() {
+        return stalls;
+    }
+
+    public long getEvokeRounds() {
+        return evokeRounds;
+    }
+
+    public double getMeanWaitMillis() {
+        return advances > 0 ? waitNanos / 1e6 / advances : 0;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitNanos / 1e6;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d advances, %d stalled (%.1f%%), %.2f evoke rounds per advance, mean wait %.2f ms, max %.2f ms",
+                advances, stalls, advances > 0 ? 100.0 * stalls / advances : 0,
+                advances > 0 ? (double) evokeRounds / advances : 0, getMeanWaitMillis(), getMaxWaitMillis());
+    }
+}
@@ -0,0 +1,92 @@
+package window_manager;
+
+import java.util.Arrays;
+
+/**
+ * Customers handed to windows by the queue federate, held in parallel int arrays from the
+ * moment the ambassador receives them until the main loop starts their service. A hand-off
+ * to a window whose servers are all busy is held at the front of the buffer, in arrival
+ * order, until that window frees a server.
+ */
+public class HandOffBuffer {
+    private int[] windowIds = new int[16];
+    private int[] customerIds = new int[16];
+    private int[] customerClasses = new int[16];
+    private int size;
+    private int heldCount;
+
+    public void add(int windowId, int customerId, int customerClass) {
+        if (size == windowIds.length) {
+            windowIds = Arrays.copyOf(windowIds, size * 2);
+            customerIds = Arrays.copyOf(customerIds, size * 2);
+            customerClasses = Arrays.copyOf(customerClasses, size * 2);
+        }
+        windowIds[size] = windowId;
+        customerIds[size] = customerId;
+        customerClasses[size] = customerClass;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getWindowId(int index) {
+        return windowIds[index];
+    }
+
+    public int getCustomerId(int index) {
+        return customerIds[index];
+    }
+
+    public int getCustomerClass(int index) {
+        return customerClasses[index];
+    }
+
+    /**
+     * Number of hand-offs at the front of the buffer waiting for a busy window.
+     */
+    public int getHeldCount() {
+        return heldCount;
+    }
+
+    /**
+     * Keeps the hand-off at the index, at or past the held ones, until its window frees a server.
+     */
+    public void hold(int index) {
+        windowIds[heldCount] = windowIds[index];
+        customerIds[heldCount] = customerIds[index];
+        customerClasses[heldCount] = customerClasses[index];
+        heldCount++;
+    }
+
+    /**
+     * Index of the hand-off held longest for the window, or -1 if none waits for it.
+     */
+    public int findHeld(int windowId) {
+        for (int i = 0; i < heldCount; i++) {
+            if (windowIds[i] == windowId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Removes a held hand-off, keeping the order of the others.
+     */
+    public void removeHeld(int index) {
+        System.arraycopy(windowIds, index + 1, windowIds, index, size - index - 1);
+        System.arraycopy(customerIds, index + 1, customerIds, index, size - index - 1);
+        System.arraycopy(customerClasses, index + 1, customerClasses, index, size - index - 1);
+        size--;
+        heldCount--;
+    }
+
+    /**
+     * Drops every hand-off that is not held.
+     */
+    public void clear() {
+        size = heldCount;
+    }
+}
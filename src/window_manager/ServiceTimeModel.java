@@ -0,0 +1,52 @@
+package window_manager;
+
+import distribution.Distribution;
+import queue_manager.CustomerClass;
+
+import java.util.SplittableRandom;
+
+/**
+ * Picks the service time distribution for a service: the one configured for the customer's
+ * class if there is one, otherwise the one of the window, otherwise the default.
+ */
+public class ServiceTimeModel {
+    public static final int UNKNOWN_CLASS = -1;
+
+    private final Distribution[] byWindow;
+    private final Distribution[] byClass;
+
+    /**
+     * Reads {@code window.serviceTime} as the default, {@code window.serviceTime.<windowId>}
+     * per window and {@code window.serviceTime.<class>}, e.g. {@code window.serviceTime.vip},
+     * per customer class. Values are specs for {@link Distribution#forSpec(String)}.
+     */
+    public static ServiceTimeModel fromSystemProperties(int windowCount) {
+        Distribution defaultDistribution = Distribution.forSpec(System.getProperty("window.serviceTime", "int-uniform:10:14"));
+        Distribution[] byWindow = new Distribution[windowCount];
+        for (int windowId = 0; windowId < windowCount; windowId++) {
+            String spec = System.getProperty("window.serviceTime." + windowId);
+            byWindow[windowId] = spec != null ? Distribution.forSpec(spec) : defaultDistribution;
+        }
+        Distribution[] byClass = new Distribution[CustomerClass.count()];
+        for (CustomerClass customerClass : CustomerClass.values()) {
+            String spec = System.getProperty("window.serviceTime." + customerClass.name().toLowerCase());
+            byClass[customerClass.ordinal()] = spec != null ? Distribution.forSpec(spec) : null;
+        }
+        return new ServiceTimeModel(byWindow, byClass);
+    }
+
+    /**
+     * @param byClass distribution per class, indexed by class; null entries fall back to the window
+     */
+    public ServiceTimeModel(Distribution[] byWindow, Distribution[] byClass) {
+        this.byWindow = byWindow;
+        this.byClass = byClass;
+    }
+
+    public double sample(int windowId, int customerClass, SplittableRandom random) {
+        Distribution distribution = customerClass >= 0 && byClass[customerClass] != null
+                ? byClass[customerClass]
+                : byWindow[windowId];
+        return distribution.sample(random);
+    }
+}
@@ -0,0 +1,146 @@
+package window_manager;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Opening hours of the windows as a time-ordered list of open and close events. A window
+ * listed in the calendar is open only during its shifts; a window not listed is open for the
+ * whole run. The events are read in order through a cursor, one due time at a time, so the
+ * federate can keep just the next one in its event schedule.
+ */
+public class ShiftCalendar {
+    private final boolean[] openAtStart;
+    private final double[] eventTimes;
+    private final int[] eventWindowIds;
+    private final boolean[] eventOpens;
+    private int nextEvent;
+
+    private ShiftCalendar(boolean[] openAtStart, double[] eventTimes, int[] eventWindowIds, boolean[] eventOpens) {
+        this.openAtStart = openAtStart;
+        this.eventTimes = eventTimes;
+        this.eventWindowIds = eventWindowIds;
+        this.eventOpens = eventOpens;
+    }
+
+    /**
+     * Calendar keeping every window open for the whole run.
+     */
+    public static ShiftCalendar alwaysOpen(int windowCount) {
+        boolean[] openAtStart = new boolean[windowCount];
+        Arrays.fill(openAtStart, true);
+        return new ShiftCalendar(openAtStart, new double[0], new int[0], new boolean[0]);
+    }
+
+    /**
+     * Reads shifts with one shift per line as {@code windowId,openTime,closeTime}. Blank lines
+     * and lines starting with {@code #} are skipped. Overlapping or touching shifts of a window
+     * are merged.
+     */
+    public static ShiftCalendar fromFile(String path, int windowCount) throws IOException {
+        List<List<double[]>> shiftsByWindow = new ArrayList<>();
+        for (int windowId = 0; windowId < windowCount; windowId++) {
+            shiftsByWindow.add(new ArrayList<>());
+        }
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                if (fields.length != 3) {
+                    throw new IOException(path + ":" + lineNumber + ": expected windowId,openTime,closeTime");
+                }
+                try {
+                    int windowId = Integer.parseInt(fields[0].trim());
+                    double openTime = Double.parseDouble(fields[1].trim());
+                    double closeTime = Double.parseDouble(fields[2].trim());
+                    if (windowId < 0 || windowId >= windowCount || closeTime <= openTime) {
+                        throw new IOException(path + ":" + lineNumber + ": bad shift " + line);
+                    }
+                    shiftsByWindow.get(windowId).add(new double[]{openTime, closeTime});
+                } catch (NumberFormatException e) {
+                    throw new IOException(path + ":" + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+        }
+
+        boolean[] openAtStart = new boolean[windowCount];
+        List<double[]> events = new ArrayList<>();
+        for (int windowId = 0; windowId < windowCount; windowId++) {
+            List<double[]> shifts = shiftsByWindow.get(windowId);
+            if (shifts.isEmpty()) {
+                openAtStart[windowId] = true;
+                continue;
+            }
+            shifts.sort(Comparator.comparingDouble(shift -> shift[0]));
+            double openTime = shifts.get(0)[0];
+            double closeTime = shifts.get(0)[1];
+            for (int i = 1; i <= shifts.size(); i++) {
+                if (i < shifts.size() && shifts.get(i)[0] <= closeTime) {
+                    closeTime = Math.max(closeTime, shifts.get(i)[1]);
+                    continue;
+                }
+                if (openTime <= 0) {
+                    openAtStart[windowId] = true;
+                } else {
+                    events.add(new double[]{openTime, windowId, 1});
+                }
+                events.add(new double[]{closeTime, windowId, 0});
+                if (i < shifts.size()) {
+                    openTime = shifts.get(i)[0];
+                    closeTime = shifts.get(i)[1];
+                }
+            }
+        }
+        events.sort(Comparator.comparingDouble(event -> event[0]));
+
+        double[] eventTimes = new double[events.size()];
+        int[] eventWindowIds = new int[events.size()];
+        boolean[] eventOpens = new boolean[events.size()];
+        for (int i = 0; i < events.size(); i++) {
+            eventTimes[i] = events.get(i)[0];
+            eventWindowIds[i] = (int) events.get(i)[1];
+            eventOpens[i] = events.get(i)[2] != 0;
+        }
+        return new ShiftCalendar(openAtStart, eventTimes, eventWindowIds, eventOpens);
+    }
+
+    public boolean isOpenAtStart(int windowId) {
+        return openAtStart[windowId];
+    }
+
+    public boolean hasNextEvent() {
+        return nextEvent < eventTimes.length;
+    }
+
+    public double getNextEventTime() {
+        return eventTimes[nextEvent];
+    }
+
+    public int getNextEventWindowId() {
+        return eventWindowIds[nextEvent];
+    }
+
+    /**
+     * True if the next event opens its window, false if it closes it.
+     */
+    public boolean isNextEventOpening() {
+        return eventOpens[nextEvent];
+    }
+
+    public void advance() {
+        nextEvent++;
+    }
+}
@@ -0,0 +1,124 @@
+package window_manager;
+
+import java.util.Arrays;
+
+/**
+ * Decides when to staff another window or send one home from the reported queue lengths.
+ * The latest length of every queue is kept with their running total, and the total is sampled
+ * once per time step into a ring of the last {@code sampleCount} samples whose sum is kept
+ * alongside, so both a report and a sample cost O(1) however long the averaging window is.
+ *
+ * Another window opens when the average exceeds {@code openThreshold} waiting customers per
+ * open window; one closes when the average would stay below {@code closeThreshold} per window
+ * with one window fewer. Keeping the close threshold under the open threshold, and waiting
+ * {@code cooldown} time units after every decision, stops the staffing from flapping. A window
+ * once opened also stays open for at least {@code minDwell} time units, so the queue it drains
+ * has time to shrink before the next close is considered.
+ */
+public class StaffingAutoscaler {
+    public static final int HOLD = 0;
+    public static final int OPEN = 1;
+    public static final int CLOSE = -1;
+
+    private final double openThreshold;
+    private final double closeThreshold;
+    private final double cooldown;
+    private final double minDwell;
+    private final int minOpenWindows;
+
+    private int[] queueSizes = new int[16];
+    private long totalQueueSize;
+
+    private final long[] samples;
+    private int nextSample;
+    private int sampleCount;
+    private long sampleSum;
+
+    private double lastDecisionTime = Double.NEGATIVE_INFINITY;
+    private double lastOpenTime = Double.NEGATIVE_INFINITY;
+
+    public StaffingAutoscaler(int sampleCount, double openThreshold, double closeThreshold, double cooldown, int minOpenWindows) {
+        this(sampleCount, openThreshold, closeThreshold, cooldown, minOpenWindows, 0);
+    }
+
+    /**
+     * @param minDwell time after an opening before any window may be closed
+     */
+    public StaffingAutoscaler(int sampleCount, double openThreshold, double closeThreshold, double cooldown, int minOpenWindows,
+                              double minDwell) {
+        if (sampleCount < 1) {
+            throw new IllegalArgumentException("Sample count must be positive, got " + sampleCount);
+        }
+        if (closeThreshold >= openThreshold) {
+            throw new IllegalArgumentException("Close threshold " + closeThreshold + " must be below open threshold " + openThreshold);
+        }
+        samples = new long[sampleCount];
+        this.openThreshold = openThreshold;
+        this.closeThreshold = closeThreshold;
+        this.cooldown = cooldown;
+        this.minDwell = minDwell;
+        this.minOpenWindows = minOpenWindows;
+    }
+
+    public void queueSizeChanged(int queueId, int size) {
+        if (queueId >= queueSizes.length) {
+            queueSizes = Arrays.copyOf(queueSizes, Math.max(queueId + 1, queueSizes.length * 2));
+        }
+        totalQueueSize += size - queueSizes[queueId];
+        queueSizes[queueId] = size;
+    }
+
+    public long getTotalQueueSize() {
+        return totalQueueSize;
+    }
+
+    /**
+     * Adds the current total queue length to the averaging window, replacing the oldest sample
+     * once the window is full.
+     */
+    public void sample() {
+        if (sampleCount == samples.length) {
+            sampleSum -= samples[nextSample];
+        } else {
+            sampleCount++;
+        }
+        samples[nextSample] = totalQueueSize;
+        sampleSum += totalQueueSize;
+        nextSample = nextSample + 1 < samples.length ? nextSample + 1 : 0;
+    }
+
+    /**
+     * Mean total queue length over the samples in the window, 0 before the first sample.
+     */
+    public double getAverageQueueSize() {
+        return sampleCount > 0 ? (double) sampleSum / sampleCount : 0;
+    }
+
+    /**
+     * Returns {@link #OPEN}, {@link #CLOSE} or {@link #HOLD} for the given staffing. A decision
+     * other than HOLD starts the cooldown.
+     *
+     * @param openWindows    windows open now
+     * @param closedWindows  windows that could be opened now
+     */
+    public int decide(double federateTime, int openWindows, int closedWindows) {
+        if (federateTime - lastDecisionTime < cooldown || sampleCount < samples.length) {
+            return HOLD;
+        }
+        double average = getAverageQueueSize();
+        int decision = HOLD;
+        if (closedWindows > 0 && average > openThreshold * Math.max(openWindows, 1)) {
+            decision = OPEN;
+        } else if (openWindows > minOpenWindows && average < closeThreshold * (openWindows - 1)
+                && federateTime - lastOpenTime >= minDwell) {
+            decision = CLOSE;
+        }
+        if (decision != HOLD) {
+            lastDecisionTime = federateTime;
+        }
+        if (decision == OPEN) {
+            lastOpenTime = federateTime;
+        }
+        return decision;
+    }
+}
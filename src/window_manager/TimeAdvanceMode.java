@@ -0,0 +1,15 @@
+package window_manager;
+
+/**
+ * How {@link WindowFederate} moves through simulation time.
+ */
+public enum TimeAdvanceMode {
+    /** Advance by one time unit per loop and look at every window. */
+    STEP,
+    /** Advance straight to the earliest pending service completion. */
+    EVENT;
+
+    public static TimeAdvanceMode forName(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+}
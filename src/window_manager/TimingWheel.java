@@ -0,0 +1,239 @@
+package window_manager;
+
+import java.util.Arrays;
+
+/**
+ * Hierarchical timing wheel of events identified by small non-negative ints, such as window
+ * ids. Time is cut into ticks of a fixed resolution; each level has 64 slots and covers 64
+ * times the span of the level below, and events too far ahead wait in an overflow list.
+ * Scheduling and cancelling are O(1), and an event is cascaded to a lower level at most once
+ * per level as time reaches its slot. Occupancy masks let the wheel skip empty slots, so
+ * advancing costs nothing for ticks where no event is due.
+ *
+ * Events keep their exact time: within a tick an event is due only once the polled time has
+ * reached it. Events due in the same tick come out in no particular order.
+ */
+public class TimingWheel {
+    private static final int LEVELS = 4;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int OVERFLOW = LEVELS * SLOTS;
+    private static final int NONE = -1;
+
+    private final double resolution;
+    private long currentTick;
+    // one list head per slot of every level, plus the overflow list at OVERFLOW
+    private final int[] heads = new int[OVERFLOW + 1];
+    private final long[] occupied = new long[LEVELS];
+    private int[] next;
+    private int[] prev;
+    private int[] buckets;
+    private double[] times;
+    private int size;
+
+    public TimingWheel(double resolution, int initialCapacity) {
+        if (!(resolution > 0)) {
+            throw new IllegalArgumentException("Resolution must be positive: " + resolution);
+        }
+        this.resolution = resolution;
+        Arrays.fill(heads, NONE);
+        next = new int[initialCapacity];
+        prev = new int[initialCapacity];
+        buckets = new int[initialCapacity];
+        times = new double[initialCapacity];
+        Arrays.fill(buckets, NONE);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isScheduled(int id) {
+        return id < buckets.length && buckets[id] != NONE;
+    }
+
+    public double getTime(int id) {
+        return times[id];
+    }
+
+    /**
+     * Schedules the event at the given time, moving it if it is already scheduled. A time
+     * before the current tick makes the event due at the next poll.
+     */
+    public void schedule(int id, double time) {
+        if (id >= buckets.length) {
+            grow(id + 1);
+        }
+        if (buckets[id] != NONE) {
+            unlink(id);
+        }
+        times[id] = time;
+        place(id);
+        size++;
+    }
+
+    public boolean cancel(int id) {
+        if (!isScheduled(id)) {
+            return false;
+        }
+        unlink(id);
+        return true;
+    }
+
+    /**
+     * Removes and returns an event whose time is at or before the given time, or -1 if none
+     * is due. Time moves forward to the tick of the given time as events are taken.
+     */
+    public int pollDue(double time) {
+        long targetTick = tickOf(time);
+        while (true) {
+            int slot = (int) (currentTick & SLOT_MASK);
+            for (int id = heads[slot]; id != NONE; id = next[id]) {
+                if (times[id] <= time) {
+                    unlink(id);
+                    return id;
+                }
+            }
+            if (currentTick >= targetTick || size == 0) {
+                return NONE;
+            }
+            moveTo(Math.min(nextCandidateTick(), targetTick));
+        }
+    }
+
+    /**
+     * Returns the earliest event time, or {@link Double#POSITIVE_INFINITY} if no event is
+     * scheduled.
+     */
+    public double peekNextTime() {
+        if (size == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            int digit = digit(currentTick, level);
+            // level 0 includes the current slot; higher levels never hold their current slot
+            long candidates = level == 0 ? occupied[0] & (-1L << digit) : occupied[level] & (-2L << digit);
+            if (candidates != 0) {
+                return earliestIn(level * SLOTS + Long.numberOfTrailingZeros(candidates));
+            }
+        }
+        return earliestIn(OVERFLOW);
+    }
+
+    private long tickOf(double time) {
+        return (long) Math.floor(time / resolution);
+    }
+
+    private static int digit(long tick, int level) {
+        return (int) (tick >>> (level * SLOT_BITS)) & SLOT_MASK;
+    }
+
+    private double earliestIn(int bucket) {
+        double earliest = Double.POSITIVE_INFINITY;
+        for (int id = heads[bucket]; id != NONE; id = next[id]) {
+            earliest = Math.min(earliest, times[id]);
+        }
+        return earliest;
+    }
+
+    /**
+     * First tick after the current one at which a slot may hold events.
+     */
+    private long nextCandidateTick() {
+        for (int level = 0; level < LEVELS; level++) {
+            long candidates = occupied[level] & (-2L << digit(currentTick, level));
+            if (candidates != 0) {
+                int shift = level * SLOT_BITS;
+                long base = (currentTick >>> (shift + SLOT_BITS)) << (shift + SLOT_BITS);
+                return base | ((long) Long.numberOfTrailingZeros(candidates) << shift);
+            }
+        }
+        int topShift = LEVELS * SLOT_BITS;
+        return ((currentTick >>> topShift) + 1) << topShift;
+    }
+
+    /**
+     * Moves to a later tick with no events strictly between, cascading every slot whose range
+     * the new tick has entered down to the levels below.
+     */
+    private void moveTo(long tick) {
+        long previousTick = currentTick;
+        currentTick = tick;
+        if ((previousTick >>> (LEVELS * SLOT_BITS)) != (tick >>> (LEVELS * SLOT_BITS))) {
+            cascade(OVERFLOW);
+        }
+        for (int level = LEVELS - 1; level >= 1; level--) {
+            int shift = level * SLOT_BITS;
+            if ((previousTick >>> shift) != (tick >>> shift)) {
+                cascade(level * SLOTS + digit(tick, level));
+            }
+        }
+    }
+
+    private void cascade(int bucket) {
+        int id = heads[bucket];
+        heads[bucket] = NONE;
+        if (bucket < OVERFLOW) {
+            occupied[bucket / SLOTS] &= ~(1L << (bucket & SLOT_MASK));
+        }
+        while (id != NONE) {
+            int following = next[id];
+            place(id);
+            id = following;
+        }
+    }
+
+    private void place(int id) {
+        long tick = Math.max(tickOf(times[id]), currentTick);
+        long difference = tick ^ currentTick;
+        int level = difference == 0 ? 0 : (63 - Long.numberOfLeadingZeros(difference)) / SLOT_BITS;
+        int bucket;
+        if (level >= LEVELS) {
+            bucket = OVERFLOW;
+        } else {
+            int slot = digit(tick, level);
+            bucket = level * SLOTS + slot;
+            occupied[level] |= 1L << slot;
+        }
+        int head = heads[bucket];
+        next[id] = head;
+        prev[id] = NONE;
+        if (head != NONE) {
+            prev[head] = id;
+        }
+        heads[bucket] = id;
+        buckets[id] = bucket;
+    }
+
+    private void unlink(int id) {
+        int bucket = buckets[id];
+        if (prev[id] != NONE) {
+            next[prev[id]] = next[id];
+        } else {
+            heads[bucket] = next[id];
+            if (next[id] == NONE && bucket < OVERFLOW) {
+                occupied[bucket / SLOTS] &= ~(1L << (bucket & SLOT_MASK));
+            }
+        }
+        if (next[id] != NONE) {
+            prev[next[id]] = prev[id];
+        }
+        buckets[id] = NONE;
+        size--;
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = Math.max(minCapacity, buckets.length * 2);
+        int oldCapacity = buckets.length;
+        next = Arrays.copyOf(next, capacity);
+        prev = Arrays.copyOf(prev, capacity);
+        times = Arrays.copyOf(times, capacity);
+        buckets = Arrays.copyOf(buckets, capacity);
+        Arrays.fill(buckets, oldCapacity, capacity, NONE);
+    }
+}
@@ -0,0 +1,93 @@
+package window_manager;
+
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Measures the cost of one service completion event, popping it and scheduling the window's
+ * next completion, with every window always busy. Time moves in unit steps as in
+ * {@link WindowFederate}, and service times are drawn uniformly from [10, 15). The timing
+ * wheel is compared with a {@link PriorityQueue} of completion objects, which reuses the
+ * popped object so neither side allocates per event.
+ *
+ * Usage: {@code TimingWheelBenchmark [services] [steps]}, defaults 10000 and 200000.
+ */
+public class TimingWheelBenchmark {
+    private static final double MIN_SERVICE_TIME = 10;
+    private static final double SERVICE_TIME_SPREAD = 5;
+
+    public static void main(String[] args) {
+        int services = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int steps = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+
+        System.out.printf("%d concurrent services, %d time steps per run%n", services, steps);
+        for (int round = 0; round < 3; round++) {
+            boolean warmup = round < 2;
+            report("timing wheel", runTimingWheel(services, steps), warmup);
+            report("priority queue", runPriorityQueue(services, steps), warmup);
+        }
+    }
+
+    private static long[] runTimingWheel(int services, int steps) {
+        Random random = new Random(42);
+        TimingWheel wheel = new TimingWheel(1.0, services);
+        for (int windowId = 0; windowId < services; windowId++) {
+            wheel.schedule(windowId, serviceTime(random));
+        }
+        long events = 0;
+        long start = System.nanoTime();
+        for (int step = 1; step <= steps; step++) {
+            int windowId;
+            while ((windowId = wheel.pollDue(step)) >= 0) {
+                wheel.schedule(windowId, step + serviceTime(random));
+                events++;
+            }
+        }
+        return new long[]{System.nanoTime() - start, events};
+    }
+
+    private static long[] runPriorityQueue(int services, int steps) {
+        Random random = new Random(42);
+        PriorityQueue<Completion> queue = new PriorityQueue<>(services);
+        for (int windowId = 0; windowId < services; windowId++) {
+            queue.add(new Completion(windowId, serviceTime(random)));
+        }
+        long events = 0;
+        long start = System.nanoTime();
+        for (int step = 1; step <= steps; step++) {
+            while (queue.peek().time <= step) {
+                Completion completion = queue.poll();
+                completion.time = step + serviceTime(random);
+                queue.add(completion);
+                events++;
+            }
+        }
+        return new long[]{System.nanoTime() - start, events};
+    }
+
+    private static double serviceTime(Random random) {
+        return MIN_SERVICE_TIME + random.nextDouble() * SERVICE_TIME_SPREAD;
+    }
+
+    private static void report(String name, long[] result, boolean warmup) {
+        if (!warmup) {
+            System.out.printf("%-15s %8.1f ns/event (%d events)%n", name, (double) result[0] / result[1], result[1]);
+        }
+    }
+
+    private static final class Completion implements Comparable<Completion> {
+        private final int windowId;
+        private double time;
+
+        Completion(int windowId, double time) {
+            this.windowId = windowId;
+            this.time = time;
+        }
+
+        @Override
+        public int compareTo(Completion other) {
+            int byTime = Double.compare(time, other.time);
+            return byTime != 0 ? byTime : Integer.compare(windowId, other.windowId);
+        }
+    }
+}
@@ -2,17 +2,26 @@ package window_manager;
 
 import hla.rti1516e.*;
 import hla.rti1516e.encoding.EncoderFactory;
+import hla.rti1516e.encoding.HLAfixedRecord;
+import hla.rti1516e.encoding.HLAfloat64BE;
 import hla.rti1516e.encoding.HLAinteger32BE;
+import hla.rti1516e.encoding.HLAvariableArray;
 import hla.rti1516e.exceptions.*;
 import hla.rti1516e.time.HLAfloat64Interval;
 import hla.rti1516e.time.HLAfloat64Time;
 import hla.rti1516e.time.HLAfloat64TimeFactory;
+import time_management.LookaheadProvider;
+import time_management.TimeAdvanceStatistics;
 
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
 
 public class WindowFederate {
     public static final String READY_TO_RUN = "ReadyToRun";
@@ -28,22 +37,88 @@ public class WindowFederate {
     protected InteractionClassHandle freeWindowID;
     protected InteractionClassHandle assignCustomerToWindow;
     protected InteractionClassHandle moveCustomerToWindow;
+    protected InteractionClassHandle windowStatistics;
+    protected InteractionClassHandle windowClosed;
+    protected InteractionClassHandle currentQueueSize;
+    protected InteractionClassHandle queueSizes;
 
     protected ParameterHandle addWindowIdHandle;
     protected ParameterHandle assignCustomerToWindowHandle;
-
-    private double serviceEndTime = 5;
-
+    protected ParameterHandle assignCustomerToWindowCustomerIdHandle;
+    protected ParameterHandle assignCustomerToWindowServerSlotHandle;
+    protected ParameterHandle freeWindowServerSlotHandle;
+    private ParameterHandle freeWindowSkillsHandle;
+    protected ParameterHandle moveCustomerToWindowWindowIdHandle;
+    protected ParameterHandle moveCustomerToWindowCustomerIdHandle;
+    protected ParameterHandle moveCustomerToWindowCustomerClassHandle;
+    private ParameterHandle windowStatisticsStatisticsHandle;
+    private ParameterHandle windowClosedWindowIdHandle;
+    protected ParameterHandle currentQueueSizeQueueIdHandle;
+    protected ParameterHandle currentQueueSizeSizeHandle;
+    protected ParameterHandle queueSizesSizesHandle;
+
+    // reused for every send, the RTI copies the encoded values out of the map
+    private ParameterHandleValueMap assignCustomerToWindowParameters;
+    private ParameterHandleValueMap freeWindowParameters;
+    private ParameterHandleValueMap windowStatisticsParameters;
+    private ParameterHandleValueMap windowClosedParameters;
+    private final List<HLAfixedRecord> windowStatisticsRecords = new ArrayList<>();
+    private HLAinteger32BE windowIdEncoder;
+    private HLAinteger32BE customerIdEncoder;
+    private HLAinteger32BE serverSlotEncoder;
+    private HLAinteger32BE skillsEncoder;
 
     protected int storageMax = 0;
     protected int storageAvailable = 0;
 
-    private Window window0;
-    private Window window1;
-
-    public WindowFederate() {
-        window0 = new Window(0);
-        window1 = new Window(1);
+    private final WindowPool windowPool;
+    private final int[] skills;
+    private final TimeAdvanceMode timeAdvanceMode;
+    // service completions by window id, and the next shift change under shiftChangeEventId
+    private final TimingWheel serviceCompletions;
+    private final ShiftCalendar shiftCalendar;
+    private final int shiftChangeEventId;
+    // a window is open while it is both on shift and staffed by the autoscaler
+    private final boolean[] onShift;
+    private final boolean[] staffed;
+    // null unless window.autoscale is set; fed by the ambassador
+    protected final StaffingAutoscaler autoscaler;
+    // filled by the ambassador, drained once per grant
+    protected final HandOffBuffer handOffs = new HandOffBuffer();
+    private final double statisticsInterval;
+    private double nextStatisticsTime;
+    private LookaheadProvider lookaheadProvider;
+    private final TimeAdvanceStatistics advanceStatistics = new TimeAdvanceStatistics();
+
+    public WindowFederate(WindowSettings settings) throws IOException {
+        SplittableRandom random = settings.seed != null ? new SplittableRandom(settings.seed) : new SplittableRandom();
+        windowPool = new WindowPool(settings.serverCounts, ServiceTimeModel.fromSystemProperties(settings.windowCount), random);
+        skills = settings.skills;
+        timeAdvanceMode = settings.timeAdvanceMode;
+        serviceCompletions = new TimingWheel(settings.wheelResolution, settings.windowCount + 1);
+        shiftCalendar = settings.shiftsPath != null
+                ? ShiftCalendar.fromFile(settings.shiftsPath, settings.windowCount)
+                : ShiftCalendar.alwaysOpen(settings.windowCount);
+        shiftChangeEventId = settings.windowCount;
+        autoscaler = settings.autoscale
+                ? new StaffingAutoscaler(settings.autoscaleSamples, settings.autoscaleOpenThreshold,
+                settings.autoscaleCloseThreshold, settings.autoscaleCooldown, settings.autoscaleMinWindows,
+                settings.autoscaleMinDwell)
+                : null;
+        onShift = new boolean[settings.windowCount];
+        staffed = new boolean[settings.windowCount];
+        for (int windowId = 0; windowId < settings.windowCount; windowId++) {
+            onShift[windowId] = shiftCalendar.isOpenAtStart(windowId);
+            staffed[windowId] = autoscaler == null || windowId < settings.autoscaleInitialWindows;
+            if (!onShift[windowId] || !staffed[windowId]) {
+                windowPool.closeWindow(windowId, 0);
+            }
+        }
+        if (shiftCalendar.hasNextEvent()) {
+            serviceCompletions.schedule(shiftChangeEventId, shiftCalendar.getNextEventTime());
+        }
+        statisticsInterval = settings.statisticsInterval;
+        nextStatisticsTime = statisticsInterval;
     }
 
     private void log(String message) {
@@ -110,19 +185,43 @@ public class WindowFederate {
         }
 
         enableTimePolicy();
+        lookaheadProvider = LookaheadProvider.fromSystemProperties("window", fedamb.federateLookahead);
         log("Time Policy Enabled");
 
         publishAndSubscribe();
         log("Published and Subscribed");
+        log("Serving with " + windowPool.getWindowCount() + " windows and " + windowPool.getFreeServerTotal() + " servers");
+
+        // every server of an open window starts out waiting for the queue federate to hand it a customer
+        for (int windowId = 0; windowId < windowPool.getWindowCount(); windowId++) {
+            if (windowPool.isOpen(windowId)) {
+                announceFreeServers(windowId);
+            }
+        }
 
         while (fedamb.isRunning) {
 
-            serviceCustomerInWindow(window0);
-            serviceCustomerInWindow(window1);
+            serviceCustomersInWindows();
+            if (autoscaler != null) {
+                autoscale();
+            }
+
+            if (fedamb.federateTime >= nextStatisticsTime) {
+                sendWindowStatistics();
+                log("Time advance: " + advanceStatistics);
+                while (nextStatisticsTime <= fedamb.federateTime) {
+                    nextStatisticsTime += statisticsInterval;
+                }
+            }
 
-            advanceTime(1);
+            if (timeAdvanceMode == TimeAdvanceMode.EVENT) {
+                advanceToNextEvent(nextEventTime());
+            } else {
+                advanceTime(1);
+            }
             log("Time Advanced to " + fedamb.federateTime);
         }
+        log("Time advance: " + advanceStatistics + ", " + lookaheadProvider.getChanges() + " lookahead changes");
 
         rtiamb.resignFederationExecution(ResignAction.DELETE_OBJECTS);
         log("Resigned from Federation");
@@ -137,28 +236,236 @@ public class WindowFederate {
         }
     }
 
-    private void serviceCustomerInWindow(Window window) throws FederateNotExecutionMember, NotConnected, NameNotFound, InvalidInteractionClassHandle, RTIinternalError, InteractionClassNotPublished, InteractionParameterNotDefined, InteractionClassNotDefined, SaveInProgress, RestoreInProgress {
-        if (window.isAvailable()) {
-            window.startService(fedamb.federateTime);
+    /**
+     * Starts service for the customers handed over since the last pass, holding those whose
+     * window is busy, then ends every service due by now, giving each freed server to a held
+     * customer or announcing it, and applies the due shift changes.
+     */
+    private void serviceCustomersInWindows() throws RTIexception {
+        for (int i = handOffs.getHeldCount(); i < handOffs.size(); i++) {
+            int windowId = handOffs.getWindowId(i);
+            if (!startServiceInWindow(windowId, handOffs.getCustomerId(i), handOffs.getCustomerClass(i))) {
+                // a hand-off sent on a stale free server announcement, served once one frees
+                log(String.format("Window [%d]: all %d servers busy, customer %d waits for the next free one",
+                        windowId, windowPool.getServerCount(windowId), handOffs.getCustomerId(i)));
+                handOffs.hold(i);
+            }
+        }
+        handOffs.clear();
 
-            ParameterHandleValueMap parameterHandleValueMap = rtiamb.getParameterHandleValueMapFactory().create(1);
-            assignCustomerToWindowHandle = rtiamb.getParameterHandle(assignCustomerToWindow, "windowId");
-            HLAinteger32BE windowID = encoderFactory.createHLAinteger32BE(window.getId());
-            parameterHandleValueMap.put(assignCustomerToWindowHandle, windowID.toByteArray());
-            rtiamb.sendInteraction(assignCustomerToWindow, parameterHandleValueMap, generateTag());
+        int windowId;
+        while ((windowId = serviceCompletions.pollDue(fedamb.federateTime)) >= 0) {
+            if (windowId == shiftChangeEventId) {
+                applyShiftChanges();
+                continue;
+            }
+            do {
+                endServiceInWindow(windowId);
+            } while (windowPool.getNextServiceEnd(windowId) <= fedamb.federateTime);
+            scheduleNextCompletion(windowId);
+        }
+    }
 
-        } else {
-            if (fedamb.federateTime == window.getServiceTime()) {
-                window.endService();
+    /**
+     * The earliest completion, but no later than the next time unit while some server is
+     * waiting, since hand-offs are receive ordered and only acted on after a grant.
+     */
+    private double nextEventTime() {
+        double nextEvent = Math.min(serviceCompletions.peekNextTime(), nextStatisticsTime);
+        if (windowPool.getFreeServerTotal() > 0) {
+            return Math.min(nextEvent, fedamb.federateTime + 1);
+        }
+        return nextEvent;
+    }
 
-                ParameterHandleValueMap parameterHandleValueMap = rtiamb.getParameterHandleValueMapFactory().create(1);
-                addWindowIdHandle = rtiamb.getParameterHandle(freeWindowID, "windowId");
-                HLAinteger32BE windowID = encoderFactory.createHLAinteger32BE(window.getId());
+    /**
+     * The earliest time anything can be sent: the next completion, shift change or statistics
+     * report. While a server is waiting, or the autoscaler may open a window, a hand-off or a
+     * queue size received now is answered at the next grant, so that is the requested time.
+     */
+    private double earliestSendTime(double requestedTime) {
+        if (windowPool.getFreeServerTotal() > 0 || autoscaler != null) {
+            return requestedTime;
+        }
+        return Math.min(serviceCompletions.peekNextTime(), nextStatisticsTime);
+    }
 
-                parameterHandleValueMap.put(addWindowIdHandle, windowID.toByteArray());
-                rtiamb.sendInteraction(freeWindowID, parameterHandleValueMap, generateTag());
+    /**
+     * Declares the lookahead the schedule allows for a request to the given time.
+     */
+    private void updateLookahead(double requestedTime) throws RTIexception {
+        if (lookaheadProvider.update(requestedTime, earliestSendTime(requestedTime))) {
+            rtiamb.modifyLookahead(timeFactory.makeInterval(lookaheadProvider.getLookahead()));
+            fedamb.federateLookahead = lookaheadProvider.getLookahead();
+            log("Lookahead set to " + fedamb.federateLookahead);
+        }
+    }
+
+    /**
+     * Puts the customer on a free server of the window and announces it, or returns false
+     * if every server of the window is busy.
+     */
+    private boolean startServiceInWindow(int windowId, int customerId, int customerClass) throws RTIexception {
+        int slot = windowPool.startService(windowId, customerId, customerClass, fedamb.federateTime);
+        if (slot < 0) {
+            return false;
+        }
+        scheduleNextCompletion(windowId);
+        log(String.format("Window [%d/%d]: customer %d is served, expected end time at: %f",
+                windowId, slot, customerId, windowPool.getServiceEndTime(windowId, slot)));
+
+        windowIdEncoder.setValue(windowId);
+        customerIdEncoder.setValue(customerId);
+        serverSlotEncoder.setValue(slot);
+        assignCustomerToWindowParameters.put(assignCustomerToWindowHandle, windowIdEncoder.toByteArray());
+        assignCustomerToWindowParameters.put(assignCustomerToWindowCustomerIdHandle, customerIdEncoder.toByteArray());
+        assignCustomerToWindowParameters.put(assignCustomerToWindowServerSlotHandle, serverSlotEncoder.toByteArray());
+        rtiamb.sendInteraction(assignCustomerToWindow, assignCustomerToWindowParameters, generateTag());
+        return true;
+    }
+
+    private void endServiceInWindow(int windowId) throws RTIexception {
+        int slot = windowPool.endNextService(windowId);
+        log(String.format("Window [%d/%d]: customer %d has finished being served",
+                windowId, slot, windowPool.getCustomerId(windowId, slot)));
+        int held = handOffs.findHeld(windowId);
+        if (held >= 0) {
+            int customerId = handOffs.getCustomerId(held);
+            int customerClass = handOffs.getCustomerClass(held);
+            handOffs.removeHeld(held);
+            startServiceInWindow(windowId, customerId, customerClass);
+        } else if (windowPool.isOpen(windowId)) {
+            sendFreeWindow(windowId, slot);
+        }
+    }
+
+    private void applyShiftChanges() throws RTIexception {
+        while (shiftCalendar.hasNextEvent() && shiftCalendar.getNextEventTime() <= fedamb.federateTime) {
+            int windowId = shiftCalendar.getNextEventWindowId();
+            onShift[windowId] = shiftCalendar.isNextEventOpening();
+            updateWindowOpening(windowId);
+            shiftCalendar.advance();
+        }
+        if (shiftCalendar.hasNextEvent()) {
+            serviceCompletions.schedule(shiftChangeEventId, shiftCalendar.getNextEventTime());
+        }
+    }
+
+    /**
+     * Samples the queue lengths and staffs the first idle window on shift or sends the last
+     * open one home when the autoscaler asks for it. Every decision is logged with the load
+     * it was based on.
+     */
+    private void autoscale() throws RTIexception {
+        autoscaler.sample();
+        int openWindows = 0;
+        int firstStaffable = -1;
+        int lastOpen = -1;
+        for (int windowId = 0; windowId < windowPool.getWindowCount(); windowId++) {
+            if (windowPool.isOpen(windowId)) {
+                openWindows++;
+                lastOpen = windowId;
+            } else if (onShift[windowId] && !staffed[windowId] && firstStaffable < 0) {
+                firstStaffable = windowId;
+            }
+        }
+        int decision = autoscaler.decide(fedamb.federateTime, openWindows, firstStaffable >= 0 ? 1 : 0);
+        if (decision == StaffingAutoscaler.HOLD) {
+            return;
+        }
+        int windowId = decision == StaffingAutoscaler.OPEN ? firstStaffable : lastOpen;
+        log(String.format("Autoscaler: time=%f, averageQueueSize=%.2f, openWindows=%d, decision=%s, window=%d",
+                fedamb.federateTime, autoscaler.getAverageQueueSize(), openWindows,
+                decision == StaffingAutoscaler.OPEN ? "open" : "close", windowId));
+        staffed[windowId] = decision == StaffingAutoscaler.OPEN;
+        updateWindowOpening(windowId);
+    }
+
+    /**
+     * Opens or closes the window so that it is open exactly while it is on shift and staffed.
+     */
+    private void updateWindowOpening(int windowId) throws RTIexception {
+        boolean shouldBeOpen = onShift[windowId] && staffed[windowId];
+        if (shouldBeOpen && !windowPool.isOpen(windowId)) {
+            windowPool.openWindow(windowId, fedamb.federateTime);
+            log(String.format("Window [%d]: opened", windowId));
+            announceFreeServers(windowId);
+        } else if (!shouldBeOpen && windowPool.isOpen(windowId)) {
+            windowPool.closeWindow(windowId, fedamb.federateTime);
+            log(String.format("Window [%d]: closed, %d services still running",
+                    windowId, windowPool.getServerCount(windowId) - windowPool.getFreeServerCount(windowId)));
+            sendWindowClosed(windowId);
+        }
+    }
+
+    private void announceFreeServers(int windowId) throws RTIexception {
+        for (int slot = 0; slot < windowPool.getServerCount(windowId); slot++) {
+            if (!windowPool.isBusy(windowId, slot)) {
+                sendFreeWindow(windowId, slot);
+            }
+        }
+    }
+
+    private void sendWindowClosed(int windowId) throws RTIexception {
+        windowIdEncoder.setValue(windowId);
+        windowClosedParameters.put(windowClosedWindowIdHandle, windowIdEncoder.toByteArray());
+        rtiamb.sendInteraction(windowClosed, windowClosedParameters, generateTag());
+    }
+
+    /**
+     * Keeps the window in the timing wheel at the end time of its first finishing server.
+     */
+    private void scheduleNextCompletion(int windowId) {
+        double nextServiceEnd = windowPool.getNextServiceEnd(windowId);
+        if (nextServiceEnd != Double.POSITIVE_INFINITY) {
+            serviceCompletions.schedule(windowId, nextServiceEnd);
+        } else {
+            serviceCompletions.cancel(windowId);
+        }
+    }
+
+    /**
+     * Publishes the counters of every window in one windowStatistics interaction.
+     */
+    private void sendWindowStatistics() throws RTIexception {
+        double now = fedamb.federateTime;
+        HLAvariableArray<HLAfixedRecord> statistics = encoderFactory.createHLAvariableArray(this::createWindowStatisticsRecord);
+        for (int windowId = 0; windowId < windowPool.getWindowCount(); windowId++) {
+            if (windowId == windowStatisticsRecords.size()) {
+                windowStatisticsRecords.add(createWindowStatisticsRecord(windowId));
             }
+            HLAfixedRecord record = windowStatisticsRecords.get(windowId);
+            ((HLAinteger32BE) record.get(0)).setValue(windowId);
+            ((HLAinteger32BE) record.get(1)).setValue(windowPool.getServerCount(windowId));
+            ((HLAfloat64BE) record.get(2)).setValue(windowPool.getBusyTime(windowId, now));
+            ((HLAfloat64BE) record.get(3)).setValue(windowPool.getIdleTime(windowId, now));
+            ((HLAinteger32BE) record.get(4)).setValue(windowPool.getServedCount(windowId));
+            ((HLAfloat64BE) record.get(5)).setValue(windowPool.getMeanServiceTime(windowId));
+            statistics.addElement(record);
         }
+        windowStatisticsParameters.put(windowStatisticsStatisticsHandle, statistics.toByteArray());
+        rtiamb.sendInteraction(windowStatistics, windowStatisticsParameters, generateTag());
+    }
+
+    private HLAfixedRecord createWindowStatisticsRecord(int index) {
+        HLAfixedRecord record = encoderFactory.createHLAfixedRecord();
+        record.add(encoderFactory.createHLAinteger32BE());
+        record.add(encoderFactory.createHLAinteger32BE());
+        record.add(encoderFactory.createHLAfloat64BE());
+        record.add(encoderFactory.createHLAfloat64BE());
+        record.add(encoderFactory.createHLAinteger32BE());
+        record.add(encoderFactory.createHLAfloat64BE());
+        return record;
+    }
+
+    private void sendFreeWindow(int windowId, int slot) throws RTIexception {
+        windowIdEncoder.setValue(windowId);
+        serverSlotEncoder.setValue(slot);
+        skillsEncoder.setValue(skills[windowId]);
+        freeWindowParameters.put(addWindowIdHandle, windowIdEncoder.toByteArray());
+        freeWindowParameters.put(freeWindowServerSlotHandle, serverSlotEncoder.toByteArray());
+        freeWindowParameters.put(freeWindowSkillsHandle, skillsEncoder.toByteArray());
+        rtiamb.sendInteraction(freeWindowID, freeWindowParameters, generateTag());
     }
 
     private void enableTimePolicy() throws Exception {
@@ -187,16 +494,79 @@ public class WindowFederate {
         String freeWindowName = "HLAinteractionRoot.freeWindow";
         freeWindowID = rtiamb.getInteractionClassHandle(freeWindowName);
         rtiamb.publishInteractionClass(freeWindowID);
+
+        String windowStatisticsName = "HLAinteractionRoot.windowStatistics";
+        windowStatistics = rtiamb.getInteractionClassHandle(windowStatisticsName);
+        rtiamb.publishInteractionClass(windowStatistics);
+        windowStatisticsStatisticsHandle = rtiamb.getParameterHandle(windowStatistics, "statistics");
+
+        String windowClosedName = "HLAinteractionRoot.windowClosed";
+        windowClosed = rtiamb.getInteractionClassHandle(windowClosedName);
+        rtiamb.publishInteractionClass(windowClosed);
+        windowClosedWindowIdHandle = rtiamb.getParameterHandle(windowClosed, "windowId");
+
+        if (autoscaler != null) {
+            // the queue federate reports lengths with one or the other depending on queue.sizePublishing
+            currentQueueSize = rtiamb.getInteractionClassHandle("HLAinteractionRoot.currentQueueSize");
+            currentQueueSizeQueueIdHandle = rtiamb.getParameterHandle(currentQueueSize, "queueId");
+            currentQueueSizeSizeHandle = rtiamb.getParameterHandle(currentQueueSize, "size");
+            rtiamb.subscribeInteractionClass(currentQueueSize);
+            queueSizes = rtiamb.getInteractionClassHandle("HLAinteractionRoot.queueSizes");
+            queueSizesSizesHandle = rtiamb.getParameterHandle(queueSizes, "sizes");
+            rtiamb.subscribeInteractionClass(queueSizes);
+        }
+
+        assignCustomerToWindowHandle = rtiamb.getParameterHandle(assignCustomerToWindow, "windowId");
+        assignCustomerToWindowCustomerIdHandle = rtiamb.getParameterHandle(assignCustomerToWindow, "customerId");
+        assignCustomerToWindowServerSlotHandle = rtiamb.getParameterHandle(assignCustomerToWindow, "serverSlot");
+        freeWindowServerSlotHandle = rtiamb.getParameterHandle(freeWindowID, "serverSlot");
+        freeWindowSkillsHandle = rtiamb.getParameterHandle(freeWindowID, "skills");
+        moveCustomerToWindowWindowIdHandle = rtiamb.getParameterHandle(moveCustomerToWindow, "windowId");
+        moveCustomerToWindowCustomerIdHandle = rtiamb.getParameterHandle(moveCustomerToWindow, "customerId");
+        moveCustomerToWindowCustomerClassHandle = rtiamb.getParameterHandle(moveCustomerToWindow, "customerClass");
+        addWindowIdHandle = rtiamb.getParameterHandle(freeWindowID, "windowId");
+        ParameterHandleValueMapFactory mapFactory = rtiamb.getParameterHandleValueMapFactory();
+        assignCustomerToWindowParameters = mapFactory.create(3);
+        freeWindowParameters = mapFactory.create(3);
+        windowStatisticsParameters = mapFactory.create(1);
+        windowClosedParameters = mapFactory.create(1);
+        windowIdEncoder = encoderFactory.createHLAinteger32BE();
+        customerIdEncoder = encoderFactory.createHLAinteger32BE();
+        serverSlotEncoder = encoderFactory.createHLAinteger32BE();
+        skillsEncoder = encoderFactory.createHLAinteger32BE();
     }
 
     private void advanceTime(double timestep) throws RTIexception {
+        double requestedTime = fedamb.federateTime + timestep;
+        updateLookahead(requestedTime);
         fedamb.isAdvancing = true;
-        HLAfloat64Time time = timeFactory.makeTime(fedamb.federateTime + timestep);
+        HLAfloat64Time time = timeFactory.makeTime(requestedTime);
+        advanceStatistics.requested();
         rtiamb.timeAdvanceRequest(time);
 
         while (fedamb.isAdvancing) {
             rtiamb.evokeMultipleCallbacks(0.1, 0.2);
+            advanceStatistics.evoked();
+        }
+        advanceStatistics.granted();
+    }
+
+    /**
+     * Asks for the next message or the given event time, whichever comes first. With no
+     * event pending the federate still moves by one time unit so it keeps receiving.
+     */
+    private void advanceToNextEvent(double eventTime) throws RTIexception {
+        double target = eventTime != Double.POSITIVE_INFINITY ? eventTime : fedamb.federateTime + 1;
+        updateLookahead(target);
+        fedamb.isAdvancing = true;
+        advanceStatistics.requested();
+        rtiamb.nextMessageRequest(timeFactory.makeTime(target));
+
+        while (fedamb.isAdvancing) {
+            rtiamb.evokeMultipleCallbacks(0.1, 0.2);
+            advanceStatistics.evoked();
         }
+        advanceStatistics.granted();
     }
 
     private short getTimeAsShort() {
@@ -216,7 +586,7 @@ public class WindowFederate {
 
         try {
 
-            new WindowFederate().runFederate(federateName);
+            new WindowFederate(WindowSettings.fromSystemProperties()).runFederate(federateName);
         } catch (Exception rtie) {
 
             rtie.printStackTrace();
@@ -3,7 +3,9 @@ package window_manager;
 import Producer.ProducerFederate;
 import hla.rti1516e.*;
 import hla.rti1516e.encoding.DecoderException;
+import hla.rti1516e.encoding.HLAfixedRecord;
 import hla.rti1516e.encoding.HLAinteger32BE;
+import hla.rti1516e.encoding.HLAvariableArray;
 import hla.rti1516e.exceptions.FederateInternalError;
 import hla.rti1516e.time.HLAfloat64Time;
 import org.portico.impl.hla1516e.types.encoding.HLA1516eInteger32BE;
@@ -195,30 +197,53 @@ public class WindowFederateAmbassador extends NullFederateAmbassador {
                                    OrderType receivedOrdering,
                                    SupplementalReceiveInfo receiveInfo)
             throws FederateInternalError {
-        String timeAsString = time != null ? String.valueOf(((HLAfloat64Time) time).getValue()) : "";
-
-        StringBuilder attributesMapAsString = new StringBuilder();
-
-        String interactionName = "";
-        if (interactionClass.equals(federate.assignCustomerToWindow)) {
-            interactionName = "(Customer)";
-
-            for (ParameterHandle parameter : theParameters.keySet()) {
-                byte[] bytes = theParameters.get(federate.addWindowIdHandle);
-                HLAinteger32BE windowId = new HLA1516eInteger32BE();
-                try {
-                    windowId.decode(bytes);
-                } catch (DecoderException e) {
-                    e.printStackTrace();
+        if (interactionClass.equals(federate.moveCustomerToWindow)) {
+            HLAinteger32BE windowId = new HLA1516eInteger32BE();
+            HLAinteger32BE customerId = new HLA1516eInteger32BE();
+            HLAinteger32BE customerClass = new HLA1516eInteger32BE();
+            try {
+                windowId.decode(theParameters.get(federate.moveCustomerToWindowWindowIdHandle));
+                customerId.decode(theParameters.get(federate.moveCustomerToWindowCustomerIdHandle));
+                byte[] classBytes = theParameters.get(federate.moveCustomerToWindowCustomerClassHandle);
+                if (classBytes != null) {
+                    customerClass.decode(classBytes);
+                } else {
+                    customerClass.setValue(ServiceTimeModel.UNKNOWN_CLASS);
                 }
-                int customerIdValue = windowId.getValue();
-                String paramValue = String.valueOf(customerIdValue);
-
-                attributesMapAsString.append(String.format("paramHandle=%s, paramValueInBytes=%s, paramValue=%s \n", parameter, theParameters.get(parameter).length, paramValue));
+            } catch (DecoderException e) {
+                e.printStackTrace();
+                return;
+            }
+            log("Customer " + customerId.getValue() + " handed to window " + windowId.getValue());
+            federate.handOffs.add(windowId.getValue(), customerId.getValue(), customerClass.getValue());
+        } else if (interactionClass.equals(federate.currentQueueSize)) {
+            HLAinteger32BE queueId = new HLA1516eInteger32BE();
+            HLAinteger32BE size = new HLA1516eInteger32BE();
+            try {
+                queueId.decode(theParameters.get(federate.currentQueueSizeQueueIdHandle));
+                size.decode(theParameters.get(federate.currentQueueSizeSizeHandle));
+            } catch (DecoderException e) {
+                e.printStackTrace();
+                return;
+            }
+            federate.autoscaler.queueSizeChanged(queueId.getValue(), size.getValue());
+        } else if (interactionClass.equals(federate.queueSizes)) {
+            HLAvariableArray<HLAfixedRecord> sizes = federate.encoderFactory.createHLAvariableArray(index -> {
+                HLAfixedRecord record = federate.encoderFactory.createHLAfixedRecord();
+                record.add(federate.encoderFactory.createHLAinteger32BE());
+                record.add(federate.encoderFactory.createHLAinteger32BE());
+                return record;
+            });
+            try {
+                sizes.decode(theParameters.get(federate.queueSizesSizesHandle));
+            } catch (DecoderException e) {
+                e.printStackTrace();
+                return;
+            }
+            for (HLAfixedRecord record : sizes) {
+                federate.autoscaler.queueSizeChanged(((HLAinteger32BE) record.get(0)).getValue(),
+                        ((HLAinteger32BE) record.get(1)).getValue());
             }
-
-            log(String.format("handle=%s, interactionName=%s, tag=%s, time=%s, attributesMapSize=%s, attributesMap=%s",
-                    interactionClass, interactionName, new String(tag), timeAsString, theParameters.size(), attributesMapAsString));
         }
     }
 
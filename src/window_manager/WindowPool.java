@@ -0,0 +1,292 @@
+package window_manager;
+
+import java.util.SplittableRandom;
+
+/**
+ * State of all windows of the federate, kept as parallel primitive arrays so that a pass over
+ * the windows touches contiguous memory and allocates nothing. A window has one or more
+ * servers (tellers) pulling from the same queue; the servers of all windows are laid out one
+ * after the other in flat per-server arrays, window by window, and a server is addressed by
+ * its window and its slot within the window. Each window keeps the slots of its busy servers
+ * in a small min-heap on their service end times, so its next completion is always at the
+ * top. All windows draw their service times from one shared random stream, each from the
+ * distribution the {@link ServiceTimeModel} picks for it.
+ *
+ * A closed window finishes the services it has but its free servers neither wait for
+ * customers nor count as idle.
+ */
+public class WindowPool {
+    private final int windowCount;
+    private final int[] serverCounts;
+    private final int[] firstServers;
+    private final int[] freeServerCounts;
+    private final boolean[] open;
+    // free servers of open windows
+    private int freeServerTotal;
+    private final int[] servedCounts;
+    private final double[] completedServiceTimes;
+
+    // per server, indexed by firstServers[windowId] + slot
+    private final boolean[] busy;
+    private final double[] serviceEndTimes;
+    private final int[] customerIds;
+    // accounting: time spent in each state up to the server's last change of state
+    private final double[] busyTimes;
+    private final double[] idleTimes;
+    private final double[] stateChangeTimes;
+
+    // per window min-heap of busy slots, stored in the window's range of this array
+    private final int[] heaps;
+    private final int[] heapSizes;
+
+    private final ServiceTimeModel serviceTimeModel;
+    private final SplittableRandom random;
+
+    /**
+     * @param serverCounts number of servers of each window, indexed by window id
+     */
+    public WindowPool(int[] serverCounts, ServiceTimeModel serviceTimeModel, SplittableRandom random) {
+        windowCount = serverCounts.length;
+        if (windowCount == 0) {
+            throw new IllegalArgumentException("Window count must be positive");
+        }
+        this.serverCounts = serverCounts.clone();
+        this.serviceTimeModel = serviceTimeModel;
+        this.random = random;
+        firstServers = new int[windowCount];
+        freeServerCounts = new int[windowCount];
+        open = new boolean[windowCount];
+        servedCounts = new int[windowCount];
+        completedServiceTimes = new double[windowCount];
+        heapSizes = new int[windowCount];
+        int serverTotal = 0;
+        for (int windowId = 0; windowId < windowCount; windowId++) {
+            if (serverCounts[windowId] <= 0) {
+                throw new IllegalArgumentException("Window " + windowId + " needs at least one server");
+            }
+            firstServers[windowId] = serverTotal;
+            freeServerCounts[windowId] = serverCounts[windowId];
+            open[windowId] = true;
+            serverTotal += serverCounts[windowId];
+        }
+        freeServerTotal = serverTotal;
+        busy = new boolean[serverTotal];
+        serviceEndTimes = new double[serverTotal];
+        customerIds = new int[serverTotal];
+        busyTimes = new double[serverTotal];
+        idleTimes = new double[serverTotal];
+        stateChangeTimes = new double[serverTotal];
+        heaps = new int[serverTotal];
+    }
+
+    public int getWindowCount() {
+        return windowCount;
+    }
+
+    public int getServerCount(int windowId) {
+        return serverCounts[windowId];
+    }
+
+    public int getFreeServerCount(int windowId) {
+        return freeServerCounts[windowId];
+    }
+
+    /**
+     * Free servers over all open windows.
+     */
+    public int getFreeServerTotal() {
+        return freeServerTotal;
+    }
+
+    public boolean isOpen(int windowId) {
+        return open[windowId];
+    }
+
+    /**
+     * Opens the window; its free servers count as idle from now on.
+     */
+    public void openWindow(int windowId, double federateTime) {
+        if (open[windowId]) {
+            return;
+        }
+        int end = firstServers[windowId] + serverCounts[windowId];
+        for (int server = firstServers[windowId]; server < end; server++) {
+            if (!busy[server]) {
+                stateChangeTimes[server] = federateTime;
+            }
+        }
+        open[windowId] = true;
+        freeServerTotal += freeServerCounts[windowId];
+    }
+
+    /**
+     * Closes the window. Services in progress continue to their end.
+     */
+    public void closeWindow(int windowId, double federateTime) {
+        if (!open[windowId]) {
+            return;
+        }
+        int end = firstServers[windowId] + serverCounts[windowId];
+        for (int server = firstServers[windowId]; server < end; server++) {
+            if (!busy[server]) {
+                idleTimes[server] += federateTime - stateChangeTimes[server];
+                stateChangeTimes[server] = federateTime;
+            }
+        }
+        open[windowId] = false;
+        freeServerTotal -= freeServerCounts[windowId];
+    }
+
+    /**
+     * Customer being served by the server, meaningful only while the server is busy.
+     */
+    public int getCustomerId(int windowId, int slot) {
+        return customerIds[firstServers[windowId] + slot];
+    }
+
+    public boolean isBusy(int windowId, int slot) {
+        return busy[firstServers[windowId] + slot];
+    }
+
+    public double getServiceEndTime(int windowId, int slot) {
+        return serviceEndTimes[firstServers[windowId] + slot];
+    }
+
+    /**
+     * Earliest service end time among the busy servers of the window, or
+     * {@link Double#POSITIVE_INFINITY} if all of them are free.
+     */
+    public double getNextServiceEnd(int windowId) {
+        int first = firstServers[windowId];
+        return heapSizes[windowId] > 0 ? serviceEndTimes[first + heaps[first]] : Double.POSITIVE_INFINITY;
+    }
+
+    public int getServedCount(int windowId) {
+        return servedCounts[windowId];
+    }
+
+    /**
+     * Server time the window has spent serving up to the given time, summed over its servers.
+     */
+    public double getBusyTime(int windowId, double federateTime) {
+        double total = 0;
+        int end = firstServers[windowId] + serverCounts[windowId];
+        for (int server = firstServers[windowId]; server < end; server++) {
+            total += busyTimes[server] + (busy[server] ? federateTime - stateChangeTimes[server] : 0);
+        }
+        return total;
+    }
+
+    /**
+     * Server time the window has spent waiting for customers up to the given time, summed over
+     * its servers.
+     */
+    public double getIdleTime(int windowId, double federateTime) {
+        double total = 0;
+        int end = firstServers[windowId] + serverCounts[windowId];
+        for (int server = firstServers[windowId]; server < end; server++) {
+            total += idleTimes[server] + (busy[server] || !open[windowId] ? 0 : federateTime - stateChangeTimes[server]);
+        }
+        return total;
+    }
+
+    /**
+     * Mean duration of the services completed so far, 0 before the first one.
+     */
+    public double getMeanServiceTime(int windowId) {
+        return servedCounts[windowId] > 0 ? completedServiceTimes[windowId] / servedCounts[windowId] : 0;
+    }
+
+    /**
+     * Puts the customer on a free server of the window and returns the server's slot, or -1
+     * if every server of the window is busy. A closed window still takes the customer, who was
+     * handed over before the queue learned of the closing. The customer class may be
+     * {@link ServiceTimeModel#UNKNOWN_CLASS}.
+     */
+    public int startService(int windowId, int customerId, int customerClass, double federateTime) {
+        if (freeServerCounts[windowId] == 0) {
+            return -1;
+        }
+        int first = firstServers[windowId];
+        int server = first;
+        while (busy[server]) {
+            server++;
+        }
+        busy[server] = true;
+        customerIds[server] = customerId;
+        if (open[windowId]) {
+            idleTimes[server] += federateTime - stateChangeTimes[server];
+            freeServerTotal--;
+        }
+        stateChangeTimes[server] = federateTime;
+        serviceEndTimes[server] = federateTime + serviceTimeModel.sample(windowId, customerClass, random);
+        freeServerCounts[windowId]--;
+        siftUp(windowId, heapSizes[windowId]++, server - first);
+        return server - first;
+    }
+
+    /**
+     * Frees the server of the window whose service ends first and returns its slot. The
+     * service is accounted as ending at its scheduled end time, which may lie before the time
+     * step that noticed it.
+     */
+    public int endNextService(int windowId) {
+        if (heapSizes[windowId] == 0) {
+            throw new IllegalStateException("Window " + windowId + " has no service in progress");
+        }
+        int first = firstServers[windowId];
+        int slot = heaps[first];
+        int last = heaps[first + --heapSizes[windowId]];
+        if (heapSizes[windowId] > 0) {
+            siftDown(windowId, 0, last);
+        }
+
+        int server = first + slot;
+        double serviceTime = serviceEndTimes[server] - stateChangeTimes[server];
+        busyTimes[server] += serviceTime;
+        stateChangeTimes[server] = serviceEndTimes[server];
+        busy[server] = false;
+        freeServerCounts[windowId]++;
+        if (open[windowId]) {
+            freeServerTotal++;
+        }
+        servedCounts[windowId]++;
+        completedServiceTimes[windowId] += serviceTime;
+        return slot;
+    }
+
+    private void siftUp(int windowId, int position, int slot) {
+        int first = firstServers[windowId];
+        double endTime = serviceEndTimes[first + slot];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            int parentSlot = heaps[first + parent];
+            if (serviceEndTimes[first + parentSlot] <= endTime) {
+                break;
+            }
+            heaps[first + position] = parentSlot;
+            position = parent;
+        }
+        heaps[first + position] = slot;
+    }
+
+    private void siftDown(int windowId, int position, int slot) {
+        int first = firstServers[windowId];
+        int size = heapSizes[windowId];
+        double endTime = serviceEndTimes[first + slot];
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            if (child + 1 < size && serviceEndTimes[first + heaps[first + child + 1]] < serviceEndTimes[first + heaps[first + child]]) {
+                child++;
+            }
+            int childSlot = heaps[first + child];
+            if (endTime <= serviceEndTimes[first + childSlot]) {
+                break;
+            }
+            heaps[first + position] = childSlot;
+            position = child;
+        }
+        heaps[first + position] = slot;
+    }
+}
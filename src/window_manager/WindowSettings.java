@@ -0,0 +1,73 @@
+package window_manager;
+
+/**
+ * Startup configuration of {@link WindowFederate}, read from {@code window.*} system properties.
+ */
+public class WindowSettings {
+    final int windowCount;
+    final int[] serverCounts;
+    final Long seed;
+    final TimeAdvanceMode timeAdvanceMode;
+    final double wheelResolution;
+    final double statisticsInterval;
+    final String shiftsPath;
+    // per window, the service types it handles as a bitmask, bit t for type t
+    final int[] skills;
+    final boolean autoscale;
+    final int autoscaleSamples;
+    final double autoscaleOpenThreshold;
+    final double autoscaleCloseThreshold;
+    final double autoscaleCooldown;
+    final double autoscaleMinDwell;
+    final int autoscaleMinWindows;
+    final int autoscaleInitialWindows;
+
+    private WindowSettings() {
+        windowCount = Integer.getInteger("window.count", 2);
+        int defaultServerCount = Integer.getInteger("window.servers", 1);
+        serverCounts = new int[windowCount];
+        for (int windowId = 0; windowId < windowCount; windowId++) {
+            serverCounts[windowId] = Integer.getInteger("window.servers." + windowId, defaultServerCount);
+        }
+        seed = Long.getLong("window.seed");
+        timeAdvanceMode = TimeAdvanceMode.forName(System.getProperty("window.timeAdvance", "step"));
+        wheelResolution = Double.parseDouble(System.getProperty("window.wheelResolution", "1.0"));
+        statisticsInterval = Double.parseDouble(System.getProperty("window.statisticsInterval", "60"));
+        shiftsPath = System.getProperty("window.shifts");
+        String defaultSkills = System.getProperty("window.skills", "all");
+        skills = new int[windowCount];
+        for (int windowId = 0; windowId < windowCount; windowId++) {
+            skills[windowId] = parseSkills(System.getProperty("window.skills." + windowId, defaultSkills));
+        }
+        autoscale = Boolean.getBoolean("window.autoscale");
+        autoscaleSamples = Integer.getInteger("window.autoscale.samples", 10);
+        autoscaleOpenThreshold = Double.parseDouble(System.getProperty("window.autoscale.openAbove", "5"));
+        autoscaleCloseThreshold = Double.parseDouble(System.getProperty("window.autoscale.closeBelow", "2"));
+        autoscaleCooldown = Double.parseDouble(System.getProperty("window.autoscale.cooldown", "10"));
+        autoscaleMinDwell = Double.parseDouble(System.getProperty("window.autoscale.minDwell", "60"));
+        autoscaleMinWindows = Integer.getInteger("window.autoscale.minWindows", 1);
+        autoscaleInitialWindows = Integer.getInteger("window.autoscale.initialWindows", autoscaleMinWindows);
+    }
+
+    /**
+     * Parses {@code all} or a comma separated list of service type ids into a bitmask.
+     */
+    private static int parseSkills(String serviceTypes) {
+        if (serviceTypes.trim().equalsIgnoreCase("all")) {
+            return -1;
+        }
+        int mask = 0;
+        for (String part : serviceTypes.split(",")) {
+            int serviceType = Integer.parseInt(part.trim());
+            if (serviceType < 0 || serviceType >= Integer.SIZE) {
+                throw new IllegalArgumentException("Service type out of range: " + serviceType);
+            }
+            mask |= 1 << serviceType;
+        }
+        return mask;
+    }
+
+    public static WindowSettings fromSystemProperties() {
+        return new WindowSettings();
+    }
+}